@@ -0,0 +1,45 @@
+package com.legalease.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Paths;
+
+/**
+ * Rewrites document locations stored before the storage backends existed. Those rows
+ * hold file paths such as uploads/case-docs/{caseId}/{file}; with the local root at
+ * uploads, the part after the root is exactly the storage key.
+ */
+@Slf4j
+@Component
+public class DocumentStorageMigration {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String rootPrefix;
+
+    public DocumentStorageMigration(JdbcTemplate jdbcTemplate,
+                                    @Value("${app.storage.local.root:uploads}") String localRoot) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rootPrefix = Paths.get(localRoot).normalize().toString().replace('\\', '/') + "/";
+    }
+
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        int documents = stripRoot("case_documents");
+        int blobs = stripRoot("document_blobs");
+        if (documents + blobs > 0) {
+            log.info("Converted {} document and {} blob paths to storage keys", documents, blobs);
+        }
+    }
+
+    private int stripRoot(String table) {
+        return jdbcTemplate.update("UPDATE " + table + " SET storage_path = substring(storage_path FROM ?) " +
+                "WHERE storage_path LIKE ?", rootPrefix.length() + 1, rootPrefix.replace("_", "\\_") + "%");
+    }
+}
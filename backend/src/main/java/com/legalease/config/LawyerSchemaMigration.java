@@ -0,0 +1,31 @@
+package com.legalease.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills columns derived from lawyer profiles for rows written before they existed.
+ * Runs before the web server accepts connections, so neither requests nor the
+ * in-memory lawyer views (built on ApplicationReadyEvent) see incomplete rows.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LawyerSchemaMigration implements SmartInitializingSingleton {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // Same rule as Lawyer.parseYears: the first run of up to three digits, else 0
+        int updated = jdbcTemplate.update(
+                "UPDATE lawyers SET experience_years = COALESCE(substring(experience FROM '[0-9]{1,3}')::int, 0) " +
+                "WHERE experience_years IS NULL");
+        if (updated > 0) {
+            log.info("Backfilled experience years on {} lawyers", updated);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.legalease.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Brings messages written before conversation keys, read watermarks, sequence
+ * numbers, the inbox read model and the search index existed up to date. Every
+ * step is idempotent, and once the data is migrated each startup costs a couple
+ * of cheap existence checks.
+ *
+ * Runs once every singleton exists, so Hibernate has already updated the schema,
+ * but before the web server starts accepting connections: no request can reach
+ * search before content_tsv exists, or page over rows that are not backfilled yet.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MessageSchemaMigration implements SmartInitializingSingleton {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        transactionTemplate.executeWithoutResult(status -> {
+            backfillConversationKeys();
+            backfillSequences();
+            backfillInbox();
+            ensureSearchIndex();
+        });
+    }
+
+    private void backfillConversationKeys() {
+        Boolean pending = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM messages WHERE conversation_key IS NULL)", Boolean.class);
+        if (!Boolean.TRUE.equals(pending)) {
+            return;
+        }
+
+        int keyed = jdbcTemplate.update(
+                "UPDATE messages SET conversation_key = CASE WHEN case_id IS NOT NULL THEN 'case:' || case_id::text " +
+                "ELSE 'dm:' || LEAST(sender_id::text, receiver_id::text) || ':' || GREATEST(sender_id::text, receiver_id::text) END " +
+                "WHERE conversation_key IS NULL");
+
+        // Seed each watermark at the newest message the receiver had flagged read, or at the start of the thread
+        int seeded = jdbcTemplate.update(
+                "INSERT INTO message_read_watermarks (id, user_id, conversation_key, last_read_at, last_read_message_id, updated_at) " +
+                "SELECT gen_random_uuid(), t.receiver_id, t.conversation_key, " +
+                "COALESCE(r.created_at, TIMESTAMP '1970-01-01 00:00:00'), " +
+                "COALESCE(r.id, '00000000-0000-0000-0000-000000000000'::uuid), now() " +
+                "FROM (SELECT DISTINCT receiver_id, conversation_key FROM messages) t " +
+                "LEFT JOIN LATERAL (SELECT m.created_at, m.id FROM messages m " +
+                "WHERE m.receiver_id = t.receiver_id AND m.conversation_key = t.conversation_key AND m.is_read " +
+                "ORDER BY m.created_at DESC, m.id DESC LIMIT 1) r ON TRUE " +
+                "ON CONFLICT (user_id, conversation_key) DO NOTHING");
+
+        log.info("Backfilled conversation keys on {} messages and seeded {} read watermarks", keyed, seeded);
+    }
+
+    /**
+     * Numbers messages written before sequence numbers existed in (createdAt, id) order,
+     * after any numbers their conversation already handed out, and moves each counter
+     * past them.
+     */
+    private void backfillSequences() {
+        Boolean pending = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM messages WHERE seq IS NULL)", Boolean.class);
+        if (!Boolean.TRUE.equals(pending)) {
+            return;
+        }
+
+        int numbered = jdbcTemplate.update(
+                "UPDATE messages m SET seq = n.seq FROM (" +
+                "SELECT u.id, COALESCE(s.last_seq, 0) + ROW_NUMBER() OVER (PARTITION BY u.conversation_key ORDER BY u.created_at, u.id) AS seq " +
+                "FROM messages u LEFT JOIN message_sequences s ON s.conversation_key = u.conversation_key " +
+                "WHERE u.seq IS NULL) n WHERE m.id = n.id");
+
+        jdbcTemplate.update(
+                "INSERT INTO message_sequences (conversation_key, last_seq) " +
+                "SELECT conversation_key, MAX(seq) FROM messages GROUP BY conversation_key " +
+                "ON CONFLICT (conversation_key) DO UPDATE SET last_seq = GREATEST(message_sequences.last_seq, EXCLUDED.last_seq)");
+
+        log.info("Backfilled sequence numbers on {} messages", numbered);
+    }
+
+    /**
+     * Full-text search column and its GIN index. The column is generated by Postgres,
+     * so every insert path keeps it current; adding it rewrites the table once.
+     */
+    private void ensureSearchIndex() {
+        jdbcTemplate.execute(
+                "ALTER TABLE messages ADD COLUMN IF NOT EXISTS content_tsv tsvector " +
+                "GENERATED ALWAYS AS (to_tsvector('english', content)) STORED");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_messages_content_tsv ON messages USING GIN (content_tsv)");
+    }
+
+    /**
+     * Builds the inbox read model from message history the first time it runs
+     * against a database that already has messages.
+     */
+    private void backfillInbox() {
+        Boolean pending = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM messages) AND NOT EXISTS (SELECT 1 FROM conversations)", Boolean.class);
+        if (!Boolean.TRUE.equals(pending)) {
+            return;
+        }
+
+        int rows = jdbcTemplate.update(
+                "INSERT INTO conversations (id, owner_id, conversation_key, counterpart_id, case_id, last_message_id, " +
+                "last_message_preview, last_sender_id, last_activity_at, unread_count) " +
+                "SELECT gen_random_uuid(), p.owner_id, p.conversation_key, p.counterpart_id, p.case_id, p.id, " +
+                "LEFT(p.content, 140), p.sender_id, p.created_at, 0 " +
+                "FROM (SELECT DISTINCT ON (x.owner_id, x.conversation_key) x.* FROM (" +
+                "SELECT m.sender_id AS owner_id, m.receiver_id AS counterpart_id, m.id, m.conversation_key, m.case_id, m.content, m.sender_id, m.created_at FROM messages m " +
+                "UNION ALL " +
+                "SELECT m.receiver_id, m.sender_id, m.id, m.conversation_key, m.case_id, m.content, m.sender_id, m.created_at FROM messages m" +
+                ") x ORDER BY x.owner_id, x.conversation_key, x.created_at DESC, x.id DESC) p " +
+                "ON CONFLICT (owner_id, conversation_key) DO NOTHING");
+
+        jdbcTemplate.update(
+                "UPDATE conversations c SET unread_count = (SELECT COUNT(*) FROM message_read_watermarks w " +
+                "JOIN messages m ON m.receiver_id = w.user_id AND m.conversation_key = w.conversation_key " +
+                "AND (m.created_at, m.id) > (w.last_read_at, w.last_read_message_id) " +
+                "WHERE w.user_id = c.owner_id AND w.conversation_key = c.conversation_key)");
+
+        log.info("Backfilled {} inbox conversation rows", rows);
+    }
+}
@@ -0,0 +1,30 @@
+package com.legalease.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableScheduling
+public class MessagingConfig {
+
+    /**
+     * Small pool that writes push events to open SSE connections. Idle connections
+     * are held by the servlet container's async support and cost no thread at all;
+     * only the actual writes run here, so a slow client never blocks the sender.
+     */
+    @Bean(name = "messagePushExecutor")
+    public ThreadPoolTaskExecutor messagePushExecutor(
+            @Value("${app.messaging.push.pool-size:4}") int poolSize,
+            @Value("${app.messaging.push.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("message-push-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,72 @@
+package com.legalease.config;
+
+import com.legalease.storage.DocumentStorage;
+import com.legalease.storage.LocalDocumentStorage;
+import com.legalease.storage.S3DocumentStorage;
+import com.legalease.storage.TieredDocumentStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Paths;
+
+@Configuration
+public class StorageConfig {
+
+    /**
+     * The document storage backend: "local" keeps everything under app.storage.local.root,
+     * "s3" keeps it in a bucket, and "tiered" keeps it in the bucket with recently read
+     * objects cached on local disk.
+     */
+    @Bean
+    public DocumentStorage documentStorage(@Value("${app.storage.backend:local}") String backend,
+                                           @Value("${app.storage.local.root:uploads}") String localRoot,
+                                           Environment env) throws IOException {
+        switch (backend.toLowerCase()) {
+            case "local":
+                return new LocalDocumentStorage(Paths.get(localRoot));
+            case "s3":
+                return s3Storage(env);
+            case "tiered":
+                return new TieredDocumentStorage(
+                        new LocalDocumentStorage(Paths.get(env.getProperty("app.storage.tiered.hot-root", "uploads/hot"))),
+                        s3Storage(env),
+                        env.getProperty("app.storage.tiered.max-hot-bytes", Long.class, 10_737_418_240L));
+            default:
+                throw new IllegalStateException("Unknown app.storage.backend: " + backend);
+        }
+    }
+
+    private static S3DocumentStorage s3Storage(Environment env) {
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(env.getProperty("app.storage.s3.region", "us-east-1")))
+                // MinIO and most other S3-compatible servers only understand bucket-in-path URLs
+                .serviceConfiguration(S3Configuration.builder()
+                        .pathStyleAccessEnabled(env.getProperty("app.storage.s3.path-style", Boolean.class, false))
+                        .build());
+        String endpoint = env.getProperty("app.storage.s3.endpoint", "");
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        String accessKey = env.getProperty("app.storage.s3.access-key", "");
+        if (accessKey.isBlank()) {
+            builder.credentialsProvider(DefaultCredentialsProvider.create());
+        } else {
+            builder.credentialsProvider(StaticCredentialsProvider.create(
+                    AwsBasicCredentials.create(accessKey, env.getProperty("app.storage.s3.secret-key", ""))));
+        }
+        return new S3DocumentStorage(builder.build(),
+                env.getRequiredProperty("app.storage.s3.bucket"),
+                env.getProperty("app.storage.s3.prefix", ""));
+    }
+}
@@ -1,7 +1,16 @@
 package com.legalease.controller;
 
 import com.legalease.dto.CaseDocumentDto;
+import com.legalease.dto.DocumentUploadDto;
+import com.legalease.dto.DocumentUploadRequest;
+import com.legalease.entity.CaseDocument;
 import com.legalease.service.CaseDocumentService;
+import com.legalease.service.DocumentUploadService;
+import com.legalease.service.FileRangeWriter;
+import com.legalease.storage.DocumentContent;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -10,6 +19,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.UUID;
 
@@ -19,6 +29,8 @@ import java.util.UUID;
 public class CaseDocumentController {
 
     private final CaseDocumentService caseDocumentService;
+    private final DocumentUploadService documentUploadService;
+    private final FileRangeWriter fileRangeWriter;
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<CaseDocumentDto> upload(@RequestParam UUID caseId,
@@ -28,6 +40,47 @@ public class CaseDocumentController {
         return ResponseEntity.ok(dto);
     }
 
+    /**
+     * Starts a resumable upload. The client then PUTs each chunk as the raw request body
+     * with its SHA-256 in X-Chunk-SHA256, in any order, and finally commits the upload.
+     */
+    @PostMapping("/uploads")
+    public ResponseEntity<DocumentUploadDto> createUpload(@RequestParam UUID caseId,
+                                                          @RequestParam UUID lawyerId,
+                                                          @Valid @RequestBody DocumentUploadRequest request) throws IOException {
+        return ResponseEntity.ok(documentUploadService.createUpload(caseId, lawyerId, request));
+    }
+
+    // Lists the chunks already stored, so an interrupted client knows what to resend
+    @GetMapping("/uploads/{uploadId}")
+    public ResponseEntity<DocumentUploadDto> getUpload(@PathVariable UUID uploadId,
+                                                       @RequestParam UUID lawyerId) {
+        return ResponseEntity.ok(documentUploadService.getUpload(uploadId, lawyerId));
+    }
+
+    @PutMapping("/uploads/{uploadId}/chunks/{chunkIndex}")
+    public ResponseEntity<DocumentUploadDto> uploadChunk(@PathVariable UUID uploadId,
+                                                         @PathVariable int chunkIndex,
+                                                         @RequestParam UUID lawyerId,
+                                                         @RequestHeader(value = "X-Chunk-SHA256", required = false) String sha256,
+                                                         HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(documentUploadService.writeChunk(uploadId, lawyerId, chunkIndex, sha256,
+                request.getInputStream()));
+    }
+
+    @PostMapping("/uploads/{uploadId}/commit")
+    public ResponseEntity<CaseDocumentDto> commitUpload(@PathVariable UUID uploadId,
+                                                        @RequestParam UUID lawyerId) throws IOException {
+        return ResponseEntity.ok(documentUploadService.commit(uploadId, lawyerId));
+    }
+
+    @DeleteMapping("/uploads/{uploadId}")
+    public ResponseEntity<Void> cancelUpload(@PathVariable UUID uploadId,
+                                             @RequestParam UUID lawyerId) throws IOException {
+        documentUploadService.cancel(uploadId, lawyerId);
+        return ResponseEntity.ok().build();
+    }
+
     @GetMapping
     public ResponseEntity<List<CaseDocumentDto>> list(@RequestParam UUID caseId,
                                                       @RequestParam UUID lawyerId) {
@@ -35,18 +88,32 @@ public class CaseDocumentController {
     }
 
     @GetMapping("/{documentId}/download")
-    public ResponseEntity<byte[]> download(@PathVariable UUID documentId,
-                                           @RequestParam UUID lawyerId) throws IOException {
-        var doc = caseDocumentService.getDocument(documentId, lawyerId);
-        byte[] bytes = caseDocumentService.download(documentId, lawyerId);
-        MediaType media = MediaType.APPLICATION_OCTET_STREAM;
+    public void download(@PathVariable UUID documentId,
+                         @RequestParam UUID lawyerId,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        CaseDocument doc = caseDocumentService.getDocument(documentId, lawyerId);
+        String encoding = doc.getContentEncoding();
+        if (encoding != null) {
+            // Compressed documents go out as stored to clients that can take them that way
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (!FileRangeWriter.acceptsEncoding(request, encoding)) {
+                encoding = null;
+            }
+        }
+        String contentType = MediaType.APPLICATION_OCTET_STREAM_VALUE;
         try {
-            media = MediaType.parseMediaType(doc.getContentType());
+            contentType = MediaType.parseMediaType(doc.getContentType()).toString();
         } catch (Exception ignored) {}
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + doc.getOriginalName() + "\"")
-                .contentType(media)
-                .body(bytes);
+        // Uploaded files are never rewritten, so the content hash (or the document id) is a strong validator;
+        // the compressed representation is a different one and gets its own
+        String etag = "\"" + (doc.getContentSha256() != null ? doc.getContentSha256() : doc.getId())
+                + (encoding != null ? "-" + encoding : "") + "\"";
+        long lastModified = doc.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        try (DocumentContent content = caseDocumentService.openContent(doc, encoding != null)) {
+            fileRangeWriter.write(request, response, content, contentType, encoding, doc.getOriginalName(), etag,
+                    lastModified);
+        }
     }
 
     @DeleteMapping("/{documentId}")
@@ -1,18 +1,29 @@
 package com.legalease.controller;
 
+import com.legalease.dto.LawyerNearbyPageDto;
+import com.legalease.dto.LawyerPageDto;
+import com.legalease.dto.LawyerRecommendationDto;
 import com.legalease.dto.LawyerRequest;
+import com.legalease.dto.LawyerSearchCriteria;
 import com.legalease.dto.LawyerSearchDto;
+import com.legalease.dto.LawyerSuggestionDto;
+import com.legalease.entity.CaseType;
 import com.legalease.entity.Lawyer;
+import com.legalease.service.LawyerDirectoryVersion;
+import com.legalease.service.LawyerRecommendationService;
 import com.legalease.service.LawyerService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/lawyers")
@@ -21,25 +32,58 @@ import java.util.UUID;
 public class LawyerController {
     
     private final LawyerService lawyerService;
+    private final LawyerDirectoryVersion directoryVersion;
+    private final LawyerRecommendationService recommendationService;
     
     @GetMapping
-    public ResponseEntity<List<Lawyer>> getAllLawyers(@RequestParam(value = "q", required = false) String q) {
-        List<Lawyer> lawyers = (q == null || q.isBlank())
+    public ResponseEntity<List<Lawyer>> getAllLawyers(@RequestParam(value = "q", required = false) String q,
+                                                      @RequestParam(value = "limit", required = false) Integer limit,
+                                                      WebRequest request) {
+        return conditional(request, () -> (q == null || q.isBlank())
                 ? lawyerService.getAllLawyers()
-                : lawyerService.searchLawyers(q);
-        return ResponseEntity.ok(lawyers);
+                : lawyerService.searchLawyers(q, limit));
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<LawyerSearchDto>> searchLawyersForClients(@RequestParam(value = "q", required = false) String query) {
-        List<LawyerSearchDto> lawyers = lawyerService.searchLawyersForClients(query);
-        return ResponseEntity.ok(lawyers);
+    public ResponseEntity<List<LawyerSearchDto>> searchLawyersForClients(@RequestParam(value = "q", required = false) String query,
+                                                                         @RequestParam(value = "limit", required = false) Integer limit,
+                                                                         WebRequest request) {
+        return conditional(request, () -> lawyerService.searchLawyersForClients(query, limit));
+    }
+    
+    @GetMapping("/suggest")
+    public ResponseEntity<List<LawyerSuggestionDto>> suggestLawyers(@RequestParam(value = "prefix", required = false) String prefix,
+                                                                    @RequestParam(value = "limit", required = false) Integer limit,
+                                                                    WebRequest request) {
+        return conditional(request, () -> lawyerService.suggestLawyers(prefix, limit));
+    }
+    
+    @GetMapping("/search/page")
+    public ResponseEntity<LawyerPageDto> searchLawyerPage(LawyerSearchCriteria criteria, WebRequest request) {
+        return conditional(request, () -> lawyerService.searchLawyerPage(criteria));
+    }
+    
+    @GetMapping("/nearby")
+    public ResponseEntity<LawyerNearbyPageDto> findNearbyLawyers(@RequestParam("lat") Double latitude,
+                                                                 @RequestParam("lng") Double longitude,
+                                                                 @RequestParam(value = "radiusKm", required = false) Double radiusKm,
+                                                                 @RequestParam(value = "page", required = false) Integer page,
+                                                                 @RequestParam(value = "limit", required = false) Integer limit,
+                                                                 WebRequest request) {
+        return conditional(request, () -> lawyerService.findNearbyLawyers(latitude, longitude, radiusKm, page, limit));
+    }
+    
+    // Depends on live workloads, so it is not tagged with the directory version
+    @GetMapping("/recommendations")
+    public ResponseEntity<List<LawyerRecommendationDto>> recommendLawyers(@RequestParam("caseType") CaseType caseType,
+                                                                          @RequestParam(value = "limit", required = false) Integer limit) {
+        List<LawyerRecommendationDto> recommendations = recommendationService.recommend(caseType, limit);
+        return ResponseEntity.ok(recommendations);
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Lawyer> getLawyerById(@PathVariable UUID id) {
-        Lawyer lawyer = lawyerService.getLawyerById(id);
-        return ResponseEntity.ok(lawyer);
+    public ResponseEntity<LawyerSearchDto> getLawyerById(@PathVariable UUID id, WebRequest request) {
+        return conditional(request, () -> lawyerService.getLawyerProfile(id));
     }
     
     @PostMapping
@@ -66,10 +110,24 @@ public class LawyerController {
         Lawyer lawyer = lawyerService.verifyLawyer(id);
         return ResponseEntity.ok(lawyer);
     }
+    
+    /**
+     * Answers from the directory version alone when the client's validator is still
+     * current (304, no body and no database access); otherwise builds the body and
+     * tags it. Every directory read shares one version, so any lawyer change
+     * revalidates them all.
+     */
+    private <T> ResponseEntity<T> conditional(WebRequest request, Supplier<T> body) {
+        LawyerDirectoryVersion.State version = directoryVersion.current();
+        if (request.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(directoryVersion.getCacheControl())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(version.getEtag())
+                .lastModified(version.getLastModified())
+                .cacheControl(directoryVersion.getCacheControl())
+                .body(body.get());
+    }
 }
-
-
-
-
-
-
@@ -1,10 +1,19 @@
 package com.legalease.controller;
 
+import com.legalease.dto.InboxPageDto;
 import com.legalease.dto.MessageDto;
+import com.legalease.dto.MessagePageDto;
+import com.legalease.dto.MessageReadResultDto;
+import com.legalease.dto.MessageSearchPageDto;
+import com.legalease.dto.MessageSyncDto;
+import com.legalease.service.MessagePushService;
 import com.legalease.service.MessageService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.UUID;
@@ -15,6 +24,7 @@ import java.util.UUID;
 public class MessageController {
     
     private final MessageService messageService;
+    private final MessagePushService messagePushService;
     
     @PostMapping
     public ResponseEntity<MessageDto> sendMessage(@RequestParam UUID senderId,
@@ -22,6 +32,9 @@ public class MessageController {
                                                 @RequestParam String content,
                                                 @RequestParam(required = false) UUID caseId) {
         MessageDto message = messageService.sendMessage(senderId, receiverId, content, caseId);
+        if (Boolean.TRUE.equals(message.getPending())) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(message);
+        }
         return ResponseEntity.ok(message);
     }
     
@@ -38,6 +51,59 @@ public class MessageController {
         return ResponseEntity.ok(messages);
     }
     
+    @GetMapping("/conversation/page")
+    public ResponseEntity<MessagePageDto> getConversationPage(@RequestParam UUID user1Id,
+                                                            @RequestParam UUID user2Id,
+                                                            @RequestParam(required = false) String before,
+                                                            @RequestParam(required = false) String after,
+                                                            @RequestParam(required = false) Integer limit) {
+        MessagePageDto page = messageService.getConversationPage(user1Id, user2Id, before, after, limit);
+        return ResponseEntity.ok(page);
+    }
+    
+    @GetMapping("/case/{caseId}/page")
+    public ResponseEntity<MessagePageDto> getCaseMessagePage(@PathVariable UUID caseId,
+                                                           @RequestParam(required = false) String before,
+                                                           @RequestParam(required = false) String after,
+                                                           @RequestParam(required = false) Integer limit) {
+        MessagePageDto page = messageService.getCaseMessagePage(caseId, before, after, limit);
+        return ResponseEntity.ok(page);
+    }
+    
+    @GetMapping("/conversation/sync")
+    public ResponseEntity<MessageSyncDto> syncConversation(@RequestParam UUID user1Id,
+                                                           @RequestParam UUID user2Id,
+                                                           @RequestParam(required = false) Long since,
+                                                           @RequestParam(required = false) Integer limit) {
+        MessageSyncDto sync = messageService.syncConversation(user1Id, user2Id, since, limit);
+        return ResponseEntity.ok(sync);
+    }
+    
+    @GetMapping("/case/{caseId}/sync")
+    public ResponseEntity<MessageSyncDto> syncCaseMessages(@PathVariable UUID caseId,
+                                                           @RequestParam(required = false) Long since,
+                                                           @RequestParam(required = false) Integer limit) {
+        MessageSyncDto sync = messageService.syncCaseMessages(caseId, since, limit);
+        return ResponseEntity.ok(sync);
+    }
+    
+    @GetMapping("/user/{userId}/conversations")
+    public ResponseEntity<InboxPageDto> getInbox(@PathVariable UUID userId,
+                                                 @RequestParam(required = false) String before,
+                                                 @RequestParam(required = false) Integer limit) {
+        InboxPageDto inbox = messageService.getInbox(userId, before, limit);
+        return ResponseEntity.ok(inbox);
+    }
+    
+    @GetMapping("/user/{userId}/search")
+    public ResponseEntity<MessageSearchPageDto> searchMessages(@PathVariable UUID userId,
+                                                               @RequestParam String q,
+                                                               @RequestParam(required = false) Integer page,
+                                                               @RequestParam(required = false) Integer limit) {
+        MessageSearchPageDto results = messageService.searchMessages(userId, q, page, limit);
+        return ResponseEntity.ok(results);
+    }
+    
     @PutMapping("/{messageId}/read")
     public ResponseEntity<Void> markAsRead(@PathVariable UUID messageId) {
         messageService.markAsRead(messageId);
@@ -50,6 +116,16 @@ public class MessageController {
         return ResponseEntity.ok().build();
     }
     
+    @PutMapping("/user/{userId}/read")
+    public ResponseEntity<MessageReadResultDto> markAsReadUpTo(@PathVariable UUID userId,
+                                                             @RequestParam(required = false) UUID counterpartId,
+                                                             @RequestParam(required = false) UUID caseId,
+                                                             @RequestParam(required = false) String upTo,
+                                                             @RequestParam(required = false) UUID upToMessageId) {
+        MessageReadResultDto result = messageService.markAsReadUpTo(userId, counterpartId, caseId, upTo, upToMessageId);
+        return ResponseEntity.ok(result);
+    }
+    
     @GetMapping("/user/{userId}/unread-count")
     public ResponseEntity<Long> getUnreadMessageCount(@PathVariable UUID userId) {
         Long count = messageService.getUnreadCount(userId);
@@ -61,4 +137,9 @@ public class MessageController {
         List<MessageDto> messages = messageService.getUnreadMessages(userId);
         return ResponseEntity.ok(messages);
     }
+    
+    @GetMapping(value = "/user/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMessages(@PathVariable UUID userId) {
+        return messagePushService.subscribe(userId, messageService.getUnreadCount(userId));
+    }
 }
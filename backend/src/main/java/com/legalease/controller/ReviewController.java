@@ -0,0 +1,42 @@
+package com.legalease.controller;
+
+import com.legalease.dto.LawyerRatingSummaryDto;
+import com.legalease.dto.ReviewDto;
+import com.legalease.dto.ReviewPageDto;
+import com.legalease.dto.ReviewRequest;
+import com.legalease.service.ReviewService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/reviews")
+@RequiredArgsConstructor
+public class ReviewController {
+    
+    private final ReviewService reviewService;
+    
+    // Creates the review for the case, or replaces the client's earlier one
+    @PostMapping
+    public ResponseEntity<ReviewDto> submitReview(@Valid @RequestBody ReviewRequest request) {
+        ReviewDto review = reviewService.submitReview(request);
+        return ResponseEntity.ok(review);
+    }
+    
+    @GetMapping("/lawyer/{lawyerId}")
+    public ResponseEntity<ReviewPageDto> getReviewsByLawyer(@PathVariable UUID lawyerId,
+                                                            @RequestParam(value = "page", required = false) Integer page,
+                                                            @RequestParam(value = "limit", required = false) Integer limit) {
+        ReviewPageDto reviews = reviewService.getReviewsByLawyer(lawyerId, page, limit);
+        return ResponseEntity.ok(reviews);
+    }
+    
+    @GetMapping("/lawyer/{lawyerId}/summary")
+    public ResponseEntity<LawyerRatingSummaryDto> getRatingSummary(@PathVariable UUID lawyerId) {
+        LawyerRatingSummaryDto summary = reviewService.getRatingSummary(lawyerId);
+        return ResponseEntity.ok(summary);
+    }
+}
@@ -0,0 +1,24 @@
+package com.legalease.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationDto {
+    private UUID id;
+    private String conversationKey;
+    private UUID counterpartId;
+    private String counterpartName;
+    private UUID caseId;
+    private String caseTitle;
+    private UUID lastMessageId;
+    private String lastMessagePreview;
+    private UUID lastSenderId;
+    private String lastActivityAt;
+    private Integer unreadCount;
+}
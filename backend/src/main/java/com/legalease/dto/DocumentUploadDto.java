@@ -0,0 +1,24 @@
+package com.legalease.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentUploadDto {
+    private UUID uploadId;
+    private UUID caseId;
+    private String originalName;
+    private Long totalSize;
+    private Integer chunkSize;
+    private Integer chunkCount;
+    // Chunks already stored; a resuming client sends only the others
+    private List<Integer> receivedChunks;
+    private LocalDateTime expiresAt;
+}
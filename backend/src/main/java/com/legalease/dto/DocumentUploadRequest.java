@@ -0,0 +1,25 @@
+package com.legalease.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class DocumentUploadRequest {
+    
+    @NotBlank(message = "File name is required")
+    @Size(max = 255, message = "File name must be at most 255 characters")
+    private String fileName;
+    
+    @Size(max = 100, message = "Content type must be at most 100 characters")
+    private String contentType;
+    
+    @NotNull(message = "Total size is required")
+    @Positive(message = "Total size must be positive")
+    private Long totalSize;
+    
+    // Optional; the server default is used when missing and out-of-range values are clamped
+    private Integer chunkSize;
+}
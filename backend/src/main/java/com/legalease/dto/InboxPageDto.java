@@ -0,0 +1,18 @@
+package com.legalease.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboxPageDto {
+    // Most recently active first
+    private List<ConversationDto> conversations;
+    // Pass as "before" to load the next (older) page; null when the page is empty
+    private String nextCursor;
+    private Boolean hasMore;
+}
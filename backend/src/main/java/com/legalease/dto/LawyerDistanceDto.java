@@ -0,0 +1,14 @@
+package com.legalease.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LawyerDistanceDto {
+    private LawyerSearchDto lawyer;
+    // Great-circle distance from the searched point to the lawyer's office
+    private Double distanceKm;
+}
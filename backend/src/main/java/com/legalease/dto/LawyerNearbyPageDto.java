@@ -0,0 +1,17 @@
+package com.legalease.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LawyerNearbyPageDto {
+    // Nearest first
+    private List<LawyerDistanceDto> lawyers;
+    private Integer page;
+    private Boolean hasMore;
+}
@@ -0,0 +1,17 @@
+package com.legalease.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LawyerPageDto {
+    private List<LawyerSearchDto> lawyers;
+    // Pass as "after" with the same filters and sort to load the next page; null when the page is empty
+    private String nextCursor;
+    private Boolean hasMore;
+}
@@ -0,0 +1,21 @@
+package com.legalease.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LawyerRatingSummaryDto {
+    private UUID lawyerId;
+    private Long reviewCount;
+    // Null until the lawyer has a review
+    private BigDecimal averageRating;
+    // Reviews per star rating, one star first
+    private List<Long> histogram;
+}
@@ -0,0 +1,17 @@
+package com.legalease.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LawyerRecommendationDto {
+    private LawyerSearchDto lawyer;
+    private Boolean specializationMatch;
+    private Integer openCases;
+    private Integer pendingRequests;
+    // Weighted blend of specialization match, hourly rate and workload; higher is better
+    private Double score;
+}
@@ -0,0 +1,33 @@
+package com.legalease.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Filters, sort and page position for the paginated lawyer search. Every field is
+ * optional; bound straight from the query string.
+ */
+@Data
+@NoArgsConstructor
+public class LawyerSearchCriteria {
+    // Substring of the lawyer's name or specialization
+    private String q;
+    // Exact specialization, as offered by the client's specialization picker
+    private String specialization;
+    private Boolean verified;
+    private BigDecimal minRate;
+    private BigDecimal maxRate;
+    private Integer minExperience;
+    private Integer maxExperience;
+    // Average rating of at least this; lawyers without reviews are excluded
+    private BigDecimal minRating;
+    // "rate", "experience", "name" or "rating"; defaults to "rate"
+    private String sort;
+    // "asc" or "desc"; defaults to "asc"
+    private String direction;
+    // nextCursor of the previous page
+    private String after;
+    private Integer limit;
+}
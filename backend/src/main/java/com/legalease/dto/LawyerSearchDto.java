@@ -20,4 +20,18 @@ public class LawyerSearchDto {
     private BigDecimal hourlyRate;
     private String phone;
     private String address;
+    private Integer experienceYears;
+    private Double latitude;
+    private Double longitude;
+    // From the lawyer's rating summary; averageRating is null until the first review
+    private BigDecimal averageRating;
+    private Long reviewCount;
+    
+    // Used by the LawyerRepository projection queries
+    public LawyerSearchDto(UUID id, String name, String email, String specialization, String experience,
+                           Integer experienceYears, Boolean verified, BigDecimal hourlyRate,
+                           Double latitude, Double longitude, BigDecimal averageRating, Long reviewCount) {
+        this(id, name, email, specialization, experience, verified, hourlyRate, null, null, experienceYears,
+                latitude, longitude, averageRating, reviewCount);
+    }
 }
@@ -0,0 +1,18 @@
+package com.legalease.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LawyerSuggestionDto {
+    private String text;
+    // NAME or SPECIALIZATION
+    private String type;
+    // Set for NAME suggestions only
+    private UUID lawyerId;
+}
@@ -19,4 +19,7 @@ public class MessageDto {
     private String senderName;
     private String receiverName;
     private String createdAt;
+    private Long seq;
+    // Set when a queued message was accepted but is not confirmed stored yet; it must not be resent
+    private Boolean pending;
 }
@@ -0,0 +1,21 @@
+package com.legalease.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessagePageDto {
+    // Oldest first, ready to be rendered
+    private List<MessageDto> messages;
+    // Pass as "before" to load older messages; null when the page is empty
+    private String beforeCursor;
+    // Pass as "after" to load newer messages; null when the page is empty
+    private String afterCursor;
+    // Whether more messages exist in the direction that was requested
+    private Boolean hasMore;
+}
@@ -0,0 +1,16 @@
+package com.legalease.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageReadPositionDto {
+    private UUID userId;
+    private Long lastReadSeq;
+    private String updatedAt;
+}
@@ -0,0 +1,15 @@
+package com.legalease.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageReadResultDto {
+    // Messages that went from unread to read
+    private Integer updated;
+    // Receiver's unread count after the update
+    private Long unreadCount;
+}
@@ -0,0 +1,16 @@
+package com.legalease.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageSearchPageDto {
+    private List<MessageDto> messages;
+    private Integer page;
+    private Boolean hasMore;
+}
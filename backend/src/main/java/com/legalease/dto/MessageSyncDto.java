@@ -0,0 +1,17 @@
+package com.legalease.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageSyncDto {
+    private List<MessageDto> messages;
+    private List<MessageReadPositionDto> readPositions;
+    private Long latestSeq;
+    private Boolean hasMore;
+}
@@ -0,0 +1,22 @@
+package com.legalease.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewDto {
+    private UUID id;
+    private UUID caseId;
+    private UUID lawyerId;
+    private UUID clientId;
+    private String clientName;
+    private Integer rating;
+    private String comment;
+    private String createdAt;
+    private String updatedAt;
+}
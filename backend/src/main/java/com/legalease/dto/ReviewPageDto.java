@@ -0,0 +1,17 @@
+package com.legalease.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewPageDto {
+    // Newest first
+    private List<ReviewDto> reviews;
+    private Integer page;
+    private Boolean hasMore;
+}
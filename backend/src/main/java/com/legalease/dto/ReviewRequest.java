@@ -0,0 +1,27 @@
+package com.legalease.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class ReviewRequest {
+    
+    @NotNull(message = "Case ID is required")
+    private UUID caseId;
+    
+    @NotNull(message = "Client ID is required")
+    private UUID clientId;
+    
+    @NotNull(message = "Rating is required")
+    @Min(value = 1, message = "Rating must be between 1 and 5")
+    @Max(value = 5, message = "Rating must be between 1 and 5")
+    private Integer rating;
+    
+    @Size(max = 4000, message = "Comment must be at most 4000 characters")
+    private String comment;
+}
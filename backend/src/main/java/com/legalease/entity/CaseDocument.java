@@ -9,7 +9,9 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "case_documents")
+@Table(name = "case_documents", indexes = {
+        @Index(name = "idx_case_documents_content_sha256", columnList = "content_sha256")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -36,12 +38,25 @@ public class CaseDocument {
     @Column(name = "content_type", nullable = false)
     private String contentType;
 
+    // The size of the file as uploaded
     @Column(name = "size_bytes", nullable = false)
     private Long sizeBytes;
 
+    // What the file takes in storage; null for documents stored before compression existed
+    @Column(name = "stored_size_bytes")
+    private Long storedSizeBytes;
+
+    // "gzip" when the stored bytes are compressed, see DocumentCompression; null when stored as uploaded
+    @Column(name = "content_encoding", length = 16)
+    private String contentEncoding;
+
     @Column(name = "storage_path", nullable = false)
     private String storagePath;
 
+    // Set when the file lives in the content-addressed blob store, see DocumentBlobStore
+    @Column(name = "content_sha256", length = 64)
+    private String contentSha256;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,57 @@
+package com.legalease.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Inbox read model: one row per participant of a direct thread or case thread,
+ * rewritten by MessageService on every send so the inbox is a single indexed query.
+ */
+@Entity
+@Table(name = "conversations",
+       uniqueConstraints = @UniqueConstraint(name = "uk_conversations_owner_key",
+                                             columnNames = {"owner_id", "conversation_key"}),
+       indexes = @Index(name = "idx_conversations_owner_activity", columnList = "owner_id, last_activity_at, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Conversation {
+
+    @Id
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "owner_id", nullable = false)
+    private User owner;
+
+    @Column(name = "conversation_key", nullable = false, length = 80)
+    private String conversationKey;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "counterpart_id", nullable = false)
+    private User counterpart;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "case_id")
+    private Case caseEntity;
+
+    @Column(name = "last_message_id", nullable = false)
+    private UUID lastMessageId;
+
+    @Column(name = "last_message_preview", nullable = false, length = 200)
+    private String lastMessagePreview;
+
+    @Column(name = "last_sender_id", nullable = false)
+    private UUID lastSenderId;
+
+    @Column(name = "last_activity_at", nullable = false)
+    private LocalDateTime lastActivityAt;
+
+    @Column(name = "unread_count", nullable = false)
+    private Integer unreadCount = 0;
+}
@@ -0,0 +1,43 @@
+package com.legalease.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A stored file identified by the SHA-256 of its content. Every CaseDocument with
+ * this hash counts as one reference; the file is removed when the last one goes.
+ */
+@Entity
+@Table(name = "document_blobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentBlob {
+
+    @Id
+    @Column(name = "sha256", length = 64)
+    private String sha256;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @Column(name = "stored_size_bytes")
+    private Long storedSizeBytes;
+
+    // Fixed by whichever upload created the blob; every document sharing it inherits it
+    @Column(name = "content_encoding", length = 16)
+    private String contentEncoding;
+
+    @Column(name = "storage_path", nullable = false)
+    private String storagePath;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,73 @@
+package com.legalease.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A chunked upload in progress. Each chunk is kept as its own file in the directory
+ * at storagePath; the CaseDocument row only appears once the upload is committed.
+ */
+@Entity
+@Table(name = "document_uploads", indexes = {
+        @Index(name = "idx_document_uploads_updated_at", columnList = "updated_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentUpload {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "case_id", nullable = false)
+    private Case caseEntity;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "lawyer_id", nullable = false)
+    private User lawyer;
+
+    @Column(name = "original_name", nullable = false)
+    private String originalName;
+
+    @Column(name = "stored_name", nullable = false)
+    private String storedName;
+
+    @Column(name = "content_type", nullable = false)
+    private String contentType;
+
+    @Column(name = "total_size", nullable = false)
+    private Long totalSize;
+
+    @Column(name = "chunk_size", nullable = false)
+    private Integer chunkSize;
+
+    @Column(name = "chunk_count", nullable = false)
+    private Integer chunkCount;
+
+    @Column(name = "storage_path", nullable = false)
+    private String storagePath;
+
+    // Set once a commit has claimed the upload; no chunk is accepted after that
+    @Column(name = "committing", nullable = false, columnDefinition = "boolean default false")
+    private boolean committing;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Moved forward by every chunk; uploads left idle past the session TTL are removed
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+}
@@ -0,0 +1,42 @@
+package com.legalease.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A chunk that has been written and whose checksum matched. Re-sending a chunk
+ * overwrites the same bytes and the same row.
+ */
+@Entity
+@Table(name = "document_upload_chunks",
+       uniqueConstraints = @UniqueConstraint(name = "uk_upload_chunks_upload_index",
+                                             columnNames = {"upload_id", "chunk_index"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentUploadChunk {
+
+    @Id
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "upload_id", nullable = false)
+    private DocumentUpload upload;
+
+    @Column(name = "chunk_index", nullable = false)
+    private Integer chunkIndex;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Integer sizeBytes;
+
+    @Column(name = "sha256", nullable = false, length = 64)
+    private String sha256;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+}
@@ -7,14 +7,24 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Entity
-@Table(name = "lawyers")
+@Table(name = "lawyers", indexes = {
+        @Index(name = "idx_lawyers_rate", columnList = "hourly_rate, id"),
+        @Index(name = "idx_lawyers_specialization_rate", columnList = "specialization, hourly_rate, id"),
+        @Index(name = "idx_lawyers_verified_rate", columnList = "verified, hourly_rate, id"),
+        @Index(name = "idx_lawyers_experience", columnList = "experience_years, id"),
+        @Index(name = "idx_lawyers_location", columnList = "latitude, longitude")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Lawyer {
     
+    private static final Pattern YEARS = Pattern.compile("\\d{1,3}");
+    
     @Id
     private UUID id;
     
@@ -29,10 +39,35 @@ public class Lawyer {
     @Column(nullable = false)
     private String experience;
     
+    // Leading number of experience ("5 years" -> 5), kept so experience can be filtered and sorted
+    @Column(name = "experience_years")
+    private Integer experienceYears;
+    
     @Column(nullable = false)
     private Boolean verified = false;
     
     @Column(name = "hourly_rate", nullable = false, precision = 10, scale = 2)
     private BigDecimal hourlyRate;
+    
+    // Office location in WGS84 degrees; both null until the lawyer sets it
+    @Column(name = "latitude")
+    private Double latitude;
+    
+    @Column(name = "longitude")
+    private Double longitude;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        experienceYears = parseYears(experience);
+    }
+    
+    public static int parseYears(String experience) {
+        if (experience == null) {
+            return 0;
+        }
+        Matcher matcher = YEARS.matcher(experience);
+        return matcher.find() ? Integer.parseInt(matcher.group()) : 0;
+    }
 }
 
@@ -0,0 +1,58 @@
+package com.legalease.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Running review totals for one lawyer, so searches read a rating without
+ * aggregating reviews. Only ever changed through LawyerRatingSummaryRepository.apply,
+ * which adds deltas under the row lock. Lawyers without reviews have no row.
+ */
+@Entity
+@Table(name = "lawyer_rating_summaries", indexes = {
+        @Index(name = "idx_rating_summaries_average", columnList = "average_rating, lawyer_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LawyerRatingSummary {
+    
+    @Id
+    @Column(name = "lawyer_id")
+    private UUID lawyerId;
+    
+    @Column(name = "review_count", nullable = false)
+    private Long reviewCount;
+    
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum;
+    
+    // Histogram: reviews per star rating
+    @Column(name = "stars_1", nullable = false)
+    private Long stars1;
+    
+    @Column(name = "stars_2", nullable = false)
+    private Long stars2;
+    
+    @Column(name = "stars_3", nullable = false)
+    private Long stars3;
+    
+    @Column(name = "stars_4", nullable = false)
+    private Long stars4;
+    
+    @Column(name = "stars_5", nullable = false)
+    private Long stars5;
+    
+    // rating_sum / review_count to two places, stored so it can be sorted on
+    @Column(name = "average_rating", precision = 3, scale = 2)
+    private BigDecimal averageRating;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -9,7 +9,11 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+        @Index(name = "idx_messages_pair_created", columnList = "sender_id, receiver_id, created_at, id"),
+        @Index(name = "idx_messages_case_created", columnList = "case_id, created_at, id"),
+        @Index(name = "idx_messages_receiver_conversation", columnList = "receiver_id, conversation_key, created_at, id")
+}, uniqueConstraints = @UniqueConstraint(name = "uk_messages_conversation_seq", columnNames = {"conversation_key", "seq"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -31,9 +35,18 @@ public class Message {
     @JoinColumn(name = "case_id")
     private Case caseEntity;
     
+    // See ConversationKeys; nullable only so rows written before it existed can be backfilled
+    @Column(name = "conversation_key", length = 80)
+    private String conversationKey;
+    
+    // Position within the conversation, allocated from message_sequences; orders delta sync
+    @Column(name = "seq")
+    private Long seq;
+    
     @Column(columnDefinition = "TEXT", nullable = false)
     private String content;
     
+    // Legacy per-row flag, no longer maintained; read state lives in message_read_watermarks
     @Column(name = "is_read", nullable = false)
     private Boolean isRead = false;
     
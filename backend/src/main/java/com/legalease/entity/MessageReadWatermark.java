@@ -0,0 +1,42 @@
+package com.legalease.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read position of one user in one conversation. Every message in the conversation
+ * addressed to the user at or before (lastReadAt, lastReadMessageId) counts as read.
+ */
+@Entity
+@Table(name = "message_read_watermarks",
+       uniqueConstraints = @UniqueConstraint(name = "uk_read_watermarks_user_conversation",
+                                             columnNames = {"user_id", "conversation_key"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageReadWatermark {
+
+    @Id
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "conversation_key", nullable = false, length = 80)
+    private String conversationKey;
+
+    @Column(name = "last_read_at", nullable = false)
+    private LocalDateTime lastReadAt;
+
+    @Column(name = "last_read_message_id", nullable = false)
+    private UUID lastReadMessageId;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
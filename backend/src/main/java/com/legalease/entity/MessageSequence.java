@@ -0,0 +1,26 @@
+package com.legalease.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Last sequence number handed out in one conversation. Allocating takes the row lock,
+ * so messages in the same conversation get gap-free, strictly increasing numbers in
+ * commit order while other conversations proceed independently.
+ */
+@Entity
+@Table(name = "message_sequences")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageSequence {
+
+    @Id
+    @Column(name = "conversation_key", length = 80)
+    private String conversationKey;
+
+    @Column(name = "last_seq", nullable = false)
+    private Long lastSeq;
+}
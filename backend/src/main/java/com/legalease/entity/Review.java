@@ -0,0 +1,66 @@
+package com.legalease.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A client's rating of the lawyer on one finished case. A case has at most one
+ * review; resubmitting changes it. Every insert and rating change is folded into
+ * LawyerRatingSummary in the same transaction.
+ */
+@Entity
+@Table(name = "reviews", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_reviews_case", columnNames = "case_id")
+}, indexes = {
+        @Index(name = "idx_reviews_lawyer_created", columnList = "lawyer_id, created_at, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Review {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "case_id", nullable = false)
+    private Case caseEntity;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "lawyer_id", nullable = false)
+    private User lawyer;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "client_id", nullable = false)
+    private User client;
+    
+    // 1 to 5 stars
+    @Column(nullable = false)
+    private Integer rating;
+    
+    @Column(columnDefinition = "TEXT")
+    private String comment;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,17 @@
+package com.legalease.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+/**
+ * Published whenever a lawyer profile is created or changed. Listeners run after
+ * the surrounding transaction commits, so in-memory lawyer views only ever pick up
+ * committed data.
+ */
+@Data
+@AllArgsConstructor
+public class LawyerChangedEvent {
+    private UUID lawyerId;
+}
@@ -0,0 +1,18 @@
+package com.legalease.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+/**
+ * Change to a lawyer's workload caused by a case or case request state transition,
+ * as deltas to apply to LawyerWorkloadTable once the transaction commits.
+ */
+@Data
+@AllArgsConstructor
+public class LawyerWorkloadEvent {
+    private UUID lawyerId;
+    private int openCasesDelta;
+    private int pendingRequestsDelta;
+}
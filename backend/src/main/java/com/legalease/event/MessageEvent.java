@@ -0,0 +1,23 @@
+package com.legalease.event;
+
+import com.legalease.dto.MessageDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+/**
+ * Published by MessageService whenever a user's inbox changes. Listeners run
+ * after the surrounding transaction commits, so a rolled back send never reaches
+ * a connected client.
+ */
+@Data
+@AllArgsConstructor
+public class MessageEvent {
+    // User whose connected clients should receive this update
+    private UUID userId;
+    // New message, or null when only the read state changed
+    private MessageDto message;
+    // Unread count after the change, or null when it did not change
+    private Long unreadCount;
+}
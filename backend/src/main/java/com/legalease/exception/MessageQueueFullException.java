@@ -0,0 +1,12 @@
+package com.legalease.exception;
+
+/**
+ * Thrown when queued message ingestion cannot accept more messages; callers
+ * should back off and retry.
+ */
+public class MessageQueueFullException extends RuntimeException {
+
+    public MessageQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -27,4 +28,8 @@ public interface CaseRepository extends JpaRepository<Case, UUID> {
     
     @Query("SELECT COUNT(c) FROM Case c WHERE c.lawyer = :lawyer AND c.status = :status")
     Long countByLawyerAndStatus(@Param("lawyer") User lawyer, @Param("status") CaseStatus status);
+    
+    // countByLawyerAndStatus for every lawyer at once, in a single scan
+    @Query("SELECT c.lawyer.id AS lawyerId, COUNT(c) AS count FROM Case c WHERE c.status IN :statuses GROUP BY c.lawyer.id")
+    List<LawyerCount> countByLawyerWithStatusIn(@Param("statuses") Collection<CaseStatus> statuses);
 }
@@ -25,4 +25,8 @@ public interface CaseRequestRepository extends JpaRepository<CaseRequest, UUID>
     
     @Query("SELECT COUNT(cr) FROM CaseRequest cr WHERE cr.lawyer = :lawyer AND cr.status = 'PENDING'")
     Long countPendingRequestsByLawyer(@Param("lawyer") User lawyer);
+    
+    // countPendingRequestsByLawyer for every lawyer at once, in a single scan
+    @Query("SELECT cr.lawyer.id AS lawyerId, COUNT(cr) AS count FROM CaseRequest cr WHERE cr.status = 'PENDING' GROUP BY cr.lawyer.id")
+    List<LawyerCount> countPendingRequestsGroupedByLawyer();
 }
@@ -0,0 +1,60 @@
+package com.legalease.repository;
+
+import com.legalease.entity.Conversation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ConversationRepository extends JpaRepository<Conversation, UUID> {
+
+    @Query("SELECT c FROM Conversation c JOIN FETCH c.counterpart LEFT JOIN FETCH c.caseEntity " +
+           "WHERE c.owner.id = :ownerId ORDER BY c.lastActivityAt DESC, c.id DESC")
+    List<Conversation> findInboxLatest(@Param("ownerId") UUID ownerId, Pageable page);
+
+    @Query("SELECT c FROM Conversation c JOIN FETCH c.counterpart LEFT JOIN FETCH c.caseEntity " +
+           "WHERE c.owner.id = :ownerId AND (c.lastActivityAt < :activityAt OR (c.lastActivityAt = :activityAt AND c.id < :id)) " +
+           "ORDER BY c.lastActivityAt DESC, c.id DESC")
+    List<Conversation> findInboxBefore(@Param("ownerId") UUID ownerId, @Param("activityAt") LocalDateTime activityAt,
+                                       @Param("id") UUID id, Pageable page);
+
+    // Moves the summary to the newest message; a send that commits out of order only bumps the unread count
+    @Modifying
+    @Query(value = "INSERT INTO conversations (id, owner_id, conversation_key, counterpart_id, case_id, last_message_id, " +
+                   "last_message_preview, last_sender_id, last_activity_at, unread_count) " +
+                   "VALUES (:id, :ownerId, :conversationKey, :counterpartId, :caseId, :messageId, :preview, :senderId, :activityAt, :unreadDelta) " +
+                   "ON CONFLICT (owner_id, conversation_key) DO UPDATE SET " +
+                   "unread_count = conversations.unread_count + EXCLUDED.unread_count, " +
+                   "last_message_id = CASE WHEN EXCLUDED.last_activity_at >= conversations.last_activity_at THEN EXCLUDED.last_message_id ELSE conversations.last_message_id END, " +
+                   "last_message_preview = CASE WHEN EXCLUDED.last_activity_at >= conversations.last_activity_at THEN EXCLUDED.last_message_preview ELSE conversations.last_message_preview END, " +
+                   "last_sender_id = CASE WHEN EXCLUDED.last_activity_at >= conversations.last_activity_at THEN EXCLUDED.last_sender_id ELSE conversations.last_sender_id END, " +
+                   "last_activity_at = GREATEST(conversations.last_activity_at, EXCLUDED.last_activity_at)", nativeQuery = true)
+    int recordMessage(@Param("id") UUID id, @Param("ownerId") UUID ownerId, @Param("conversationKey") String conversationKey,
+                      @Param("counterpartId") UUID counterpartId, @Param("caseId") UUID caseId,
+                      @Param("messageId") UUID messageId, @Param("preview") String preview, @Param("senderId") UUID senderId,
+                      @Param("activityAt") LocalDateTime activityAt, @Param("unreadDelta") int unreadDelta);
+
+    // Re-derives unread counts from the read watermarks after the owner read something
+    @Modifying
+    @Query(value = "UPDATE conversations c SET unread_count = (SELECT COUNT(*) FROM message_read_watermarks w " +
+                   "JOIN messages m ON m.receiver_id = w.user_id AND m.conversation_key = w.conversation_key " +
+                   "AND (m.created_at, m.id) > (w.last_read_at, w.last_read_message_id) " +
+                   "WHERE w.user_id = c.owner_id AND w.conversation_key = c.conversation_key) " +
+                   "WHERE c.owner_id = :ownerId AND c.unread_count > 0", nativeQuery = true)
+    int refreshUnreadCounts(@Param("ownerId") UUID ownerId);
+
+    @Modifying
+    @Query(value = "UPDATE conversations c SET unread_count = (SELECT COUNT(*) FROM message_read_watermarks w " +
+                   "JOIN messages m ON m.receiver_id = w.user_id AND m.conversation_key = w.conversation_key " +
+                   "AND (m.created_at, m.id) > (w.last_read_at, w.last_read_message_id) " +
+                   "WHERE w.user_id = c.owner_id AND w.conversation_key = c.conversation_key) " +
+                   "WHERE c.owner_id = :ownerId AND c.conversation_key = :conversationKey", nativeQuery = true)
+    int refreshUnreadCount(@Param("ownerId") UUID ownerId, @Param("conversationKey") String conversationKey);
+}
@@ -0,0 +1,50 @@
+package com.legalease.repository;
+
+import com.legalease.entity.DocumentBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DocumentBlobRepository extends JpaRepository<DocumentBlob, String> {
+
+    // Adds a reference, creating the row for new content; the row stays locked until commit
+    @Modifying
+    @Query(value = "INSERT INTO document_blobs (sha256, size_bytes, stored_size_bytes, content_encoding, storage_path, ref_count, created_at) " +
+                   "VALUES (:sha256, :sizeBytes, :storedSizeBytes, :contentEncoding, :storagePath, 1, now()) " +
+                   "ON CONFLICT (sha256) DO UPDATE SET ref_count = document_blobs.ref_count + 1", nativeQuery = true)
+    int acquire(@Param("sha256") String sha256, @Param("sizeBytes") long sizeBytes,
+                @Param("storedSizeBytes") long storedSizeBytes, @Param("contentEncoding") String contentEncoding,
+                @Param("storagePath") String storagePath);
+
+    @Modifying
+    @Query("UPDATE DocumentBlob b SET b.refCount = b.refCount - 1 WHERE b.sha256 = :sha256 AND b.refCount > 0")
+    int release(@Param("sha256") String sha256);
+
+    @Query("SELECT b.refCount FROM DocumentBlob b WHERE b.sha256 = :sha256")
+    Optional<Integer> findRefCount(@Param("sha256") String sha256);
+
+    // An unreferenced row for content that has none, so that there is a row to lock while its object is reclaimed
+    @Modifying
+    @Query(value = "INSERT INTO document_blobs (sha256, size_bytes, storage_path, ref_count, created_at) " +
+                   "VALUES (:sha256, 0, :storagePath, 0, now()) ON CONFLICT (sha256) DO NOTHING", nativeQuery = true)
+    int addUnreferenced(@Param("sha256") String sha256, @Param("storagePath") String storagePath);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM DocumentBlob b WHERE b.sha256 = :sha256")
+    Optional<DocumentBlob> findByIdForUpdate(@Param("sha256") String sha256);
+
+    @Query("SELECT b.sha256 FROM DocumentBlob b WHERE b.refCount = 0")
+    List<String> findUnreferenced();
+
+    @Modifying
+    @Query("DELETE FROM DocumentBlob b WHERE b.sha256 = :sha256 AND b.refCount = 0")
+    int deleteIfUnreferenced(@Param("sha256") String sha256);
+}
@@ -0,0 +1,34 @@
+package com.legalease.repository;
+
+import com.legalease.entity.DocumentUploadChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface DocumentUploadChunkRepository extends JpaRepository<DocumentUploadChunk, UUID> {
+
+    // Records a received chunk; a retried chunk replaces its earlier row
+    @Modifying
+    @Query(value = "INSERT INTO document_upload_chunks (id, upload_id, chunk_index, size_bytes, sha256, received_at) " +
+                   "VALUES (:id, :uploadId, :chunkIndex, :sizeBytes, :sha256, now()) " +
+                   "ON CONFLICT (upload_id, chunk_index) DO UPDATE SET size_bytes = EXCLUDED.size_bytes, " +
+                   "sha256 = EXCLUDED.sha256, received_at = EXCLUDED.received_at", nativeQuery = true)
+    int record(@Param("id") UUID id, @Param("uploadId") UUID uploadId, @Param("chunkIndex") int chunkIndex,
+               @Param("sizeBytes") int sizeBytes, @Param("sha256") String sha256);
+
+    @Query("SELECT c.chunkIndex FROM DocumentUploadChunk c WHERE c.upload.id = :uploadId ORDER BY c.chunkIndex")
+    List<Integer> findChunkIndexes(@Param("uploadId") UUID uploadId);
+
+    @Query("SELECT COUNT(c) FROM DocumentUploadChunk c WHERE c.upload.id = :uploadId")
+    long countByUploadId(@Param("uploadId") UUID uploadId);
+
+    @Modifying
+    @Query("DELETE FROM DocumentUploadChunk c WHERE c.upload.id = :uploadId")
+    int deleteByUploadId(@Param("uploadId") UUID uploadId);
+}
@@ -0,0 +1,39 @@
+package com.legalease.repository;
+
+import com.legalease.entity.DocumentUpload;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface DocumentUploadRepository extends JpaRepository<DocumentUpload, UUID> {
+
+    // Serializes commit, cancel and expiry of the same upload
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM DocumentUpload u WHERE u.id = :id")
+    Optional<DocumentUpload> findByIdForUpdate(@Param("id") UUID id);
+
+    // Taken by each chunk while it is put in place: chunks share the row, a commit waits for all of them
+    @Query(value = "SELECT committing FROM document_uploads WHERE id = :id FOR KEY SHARE", nativeQuery = true)
+    Optional<Boolean> lockForChunk(@Param("id") UUID id);
+
+    @Query("SELECT u.id FROM DocumentUpload u WHERE u.updatedAt < :cutoff")
+    List<UUID> findIdsUpdatedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("UPDATE DocumentUpload u SET u.updatedAt = :now WHERE u.id = :id")
+    int touch(@Param("id") UUID id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE DocumentUpload u SET u.committing = false WHERE u.id = :id")
+    int releaseCommit(@Param("id") UUID id);
+}
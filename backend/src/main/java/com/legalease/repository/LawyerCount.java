@@ -0,0 +1,10 @@
+package com.legalease.repository;
+
+import java.util.UUID;
+
+// One row of a per-lawyer GROUP BY count
+public interface LawyerCount {
+    UUID getLawyerId();
+
+    long getCount();
+}
@@ -0,0 +1,35 @@
+package com.legalease.repository;
+
+import com.legalease.entity.LawyerRatingSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface LawyerRatingSummaryRepository extends JpaRepository<LawyerRatingSummary, UUID> {
+    
+    // Adds one review's change to the lawyer's totals and recomputes the average, creating the row on first review
+    @Modifying
+    @Query(value = "INSERT INTO lawyer_rating_summaries (lawyer_id, review_count, rating_sum, " +
+                   "stars_1, stars_2, stars_3, stars_4, stars_5, average_rating, updated_at) " +
+                   "VALUES (:lawyerId, :countDelta, :sumDelta, :stars1, :stars2, :stars3, :stars4, :stars5, " +
+                   "ROUND(CAST(:sumDelta AS numeric) / NULLIF(:countDelta, 0), 2), now()) " +
+                   "ON CONFLICT (lawyer_id) DO UPDATE SET " +
+                   "review_count = lawyer_rating_summaries.review_count + EXCLUDED.review_count, " +
+                   "rating_sum = lawyer_rating_summaries.rating_sum + EXCLUDED.rating_sum, " +
+                   "stars_1 = lawyer_rating_summaries.stars_1 + EXCLUDED.stars_1, " +
+                   "stars_2 = lawyer_rating_summaries.stars_2 + EXCLUDED.stars_2, " +
+                   "stars_3 = lawyer_rating_summaries.stars_3 + EXCLUDED.stars_3, " +
+                   "stars_4 = lawyer_rating_summaries.stars_4 + EXCLUDED.stars_4, " +
+                   "stars_5 = lawyer_rating_summaries.stars_5 + EXCLUDED.stars_5, " +
+                   "average_rating = ROUND(CAST(lawyer_rating_summaries.rating_sum + EXCLUDED.rating_sum AS numeric) " +
+                   "/ NULLIF(lawyer_rating_summaries.review_count + EXCLUDED.review_count, 0), 2), " +
+                   "updated_at = EXCLUDED.updated_at", nativeQuery = true)
+    int apply(@Param("lawyerId") UUID lawyerId, @Param("countDelta") long countDelta, @Param("sumDelta") long sumDelta,
+              @Param("stars1") long stars1, @Param("stars2") long stars2, @Param("stars3") long stars3,
+              @Param("stars4") long stars4, @Param("stars5") long stars5);
+}
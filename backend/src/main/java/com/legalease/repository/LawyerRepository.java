@@ -1,20 +1,51 @@
 package com.legalease.repository;
 
+import com.legalease.dto.LawyerSearchDto;
 import com.legalease.entity.Lawyer;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface LawyerRepository extends JpaRepository<Lawyer, UUID> {
+public interface LawyerRepository extends JpaRepository<Lawyer, UUID>, LawyerRepositoryCustom {
     List<Lawyer> findBySpecializationContainingIgnoreCase(String specialization);
     List<Lawyer> findByUser_NameContainingIgnoreCase(String name);
     
     @Query("SELECT l FROM Lawyer l JOIN FETCH l.user")
     List<Lawyer> findAllWithUser();
+
+    
+    // Search rows straight from one lawyers JOIN users select, without loading entities
+    
+    @Query("SELECT new com.legalease.dto.LawyerSearchDto(l.id, u.name, u.email, l.specialization, l.experience, " +
+           "l.experienceYears, l.verified, l.hourlyRate, l.latitude, l.longitude, s.averageRating, COALESCE(s.reviewCount, 0)) " +
+           "FROM Lawyer l JOIN l.user u LEFT JOIN LawyerRatingSummary s ON s.lawyerId = l.id")
+    List<LawyerSearchDto> findAllSearchDtos();
+    
+    @Query("SELECT new com.legalease.dto.LawyerSearchDto(l.id, u.name, u.email, l.specialization, l.experience, " +
+           "l.experienceYears, l.verified, l.hourlyRate, l.latitude, l.longitude, s.averageRating, COALESCE(s.reviewCount, 0)) " +
+           "FROM Lawyer l JOIN l.user u LEFT JOIN LawyerRatingSummary s ON s.lawyerId = l.id WHERE l.id = :id")
+    Optional<LawyerSearchDto> findSearchDtoById(@Param("id") UUID id);
+    
+    @Query("SELECT new com.legalease.dto.LawyerSearchDto(l.id, u.name, u.email, l.specialization, l.experience, " +
+           "l.experienceYears, l.verified, l.hourlyRate, l.latitude, l.longitude, s.averageRating, COALESCE(s.reviewCount, 0)) " +
+           "FROM Lawyer l JOIN l.user u LEFT JOIN LawyerRatingSummary s ON s.lawyerId = l.id " +
+           "WHERE LOWER(l.specialization) LIKE LOWER(CONCAT('%', :query, '%')) " +
+           "OR LOWER(u.name) LIKE LOWER(CONCAT('%', :query, '%'))")
+    List<LawyerSearchDto> searchSearchDtos(@Param("query") String query);
+    
+    // Bounding-box prefilter for nearby search, served by idx_lawyers_location; exact distances are computed by the caller
+    @Query("SELECT new com.legalease.dto.LawyerSearchDto(l.id, u.name, u.email, l.specialization, l.experience, " +
+           "l.experienceYears, l.verified, l.hourlyRate, l.latitude, l.longitude, s.averageRating, COALESCE(s.reviewCount, 0)) " +
+           "FROM Lawyer l JOIN l.user u LEFT JOIN LawyerRatingSummary s ON s.lawyerId = l.id " +
+           "WHERE l.latitude BETWEEN :minLat AND :maxLat AND l.longitude BETWEEN :minLon AND :maxLon")
+    List<LawyerSearchDto> findSearchDtosInBox(@Param("minLat") double minLat, @Param("maxLat") double maxLat,
+                                              @Param("minLon") double minLon, @Param("maxLon") double maxLon);
 }
 
 
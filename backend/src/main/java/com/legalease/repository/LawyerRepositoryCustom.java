@@ -0,0 +1,24 @@
+package com.legalease.repository;
+
+import com.legalease.dto.LawyerSearchCriteria;
+import com.legalease.dto.LawyerSearchDto;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface LawyerRepositoryCustom {
+
+    String SORT_RATE = "l.hourlyRate";
+    String SORT_EXPERIENCE = "l.experienceYears";
+    String SORT_NAME = "u.name";
+    // Lawyers without reviews sort as 0; the summary row is LEFT JOINed as s. Being an
+    // expression over an outer join, this sort is not read from idx_rating_summaries_average
+    String SORT_RATING = "COALESCE(s.averageRating, 0)";
+
+    /**
+     * One keyset slice of search rows. sortColumn is one of the SORT_ constants;
+     * when afterValue is set, only rows strictly past (afterValue, afterId) are read.
+     */
+    List<LawyerSearchDto> findSearchPage(LawyerSearchCriteria criteria, String sortColumn, boolean descending,
+                                         Object afterValue, UUID afterId, int limit);
+}
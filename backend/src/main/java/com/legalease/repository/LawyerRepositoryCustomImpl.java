@@ -0,0 +1,77 @@
+package com.legalease.repository;
+
+import com.legalease.dto.LawyerSearchCriteria;
+import com.legalease.dto.LawyerSearchDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class LawyerRepositoryCustomImpl implements LawyerRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<LawyerSearchDto> findSearchPage(LawyerSearchCriteria criteria, String sortColumn, boolean descending,
+                                                Object afterValue, UUID afterId, int limit) {
+        StringBuilder jpql = new StringBuilder(
+                "SELECT new com.legalease.dto.LawyerSearchDto(l.id, u.name, u.email, l.specialization, l.experience, " +
+                "l.experienceYears, l.verified, l.hourlyRate, l.latitude, l.longitude, s.averageRating, COALESCE(s.reviewCount, 0)) " +
+                "FROM Lawyer l JOIN l.user u LEFT JOIN LawyerRatingSummary s ON s.lawyerId = l.id WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+
+        // Only the filters that were supplied end up in the statement
+        if (criteria.getQ() != null && !criteria.getQ().isBlank()) {
+            jpql.append(" AND (LOWER(l.specialization) LIKE :q OR LOWER(u.name) LIKE :q)");
+            params.put("q", "%" + criteria.getQ().trim().toLowerCase() + "%");
+        }
+        if (criteria.getSpecialization() != null && !criteria.getSpecialization().isBlank()) {
+            jpql.append(" AND l.specialization = :specialization");
+            params.put("specialization", criteria.getSpecialization());
+        }
+        if (criteria.getVerified() != null) {
+            jpql.append(" AND l.verified = :verified");
+            params.put("verified", criteria.getVerified());
+        }
+        if (criteria.getMinRate() != null) {
+            jpql.append(" AND l.hourlyRate >= :minRate");
+            params.put("minRate", criteria.getMinRate());
+        }
+        if (criteria.getMaxRate() != null) {
+            jpql.append(" AND l.hourlyRate <= :maxRate");
+            params.put("maxRate", criteria.getMaxRate());
+        }
+        if (criteria.getMinRating() != null) {
+            jpql.append(" AND s.averageRating >= :minRating");
+            params.put("minRating", criteria.getMinRating());
+        }
+        if (criteria.getMinExperience() != null) {
+            jpql.append(" AND l.experienceYears >= :minExperience");
+            params.put("minExperience", criteria.getMinExperience());
+        }
+        if (criteria.getMaxExperience() != null) {
+            jpql.append(" AND l.experienceYears <= :maxExperience");
+            params.put("maxExperience", criteria.getMaxExperience());
+        }
+
+        String comparison = descending ? "<" : ">";
+        if (afterValue != null) {
+            jpql.append(" AND (").append(sortColumn).append(' ').append(comparison).append(" :afterValue OR (")
+                .append(sortColumn).append(" = :afterValue AND l.id ").append(comparison).append(" :afterId))");
+            params.put("afterValue", afterValue);
+            params.put("afterId", afterId);
+        }
+
+        String order = descending ? " DESC" : " ASC";
+        jpql.append(" ORDER BY ").append(sortColumn).append(order).append(", l.id").append(order);
+
+        TypedQuery<LawyerSearchDto> query = entityManager.createQuery(jpql.toString(), LawyerSearchDto.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
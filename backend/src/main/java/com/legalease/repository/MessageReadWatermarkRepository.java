@@ -0,0 +1,89 @@
+package com.legalease.repository;
+
+import com.legalease.entity.MessageReadWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface MessageReadWatermarkRepository extends JpaRepository<MessageReadWatermark, UUID> {
+
+    List<MessageReadWatermark> findByConversationKeyIn(Collection<String> conversationKeys);
+
+    // Each participant's watermark as the seq of the newest message it covers, 0 when nothing is read yet
+    @Query(value = "SELECT w.user_id AS userId, COALESCE(r.seq, 0) AS lastReadSeq, w.updated_at AS updatedAt " +
+                   "FROM message_read_watermarks w LEFT JOIN LATERAL (SELECT m.seq FROM messages m " +
+                   "WHERE m.receiver_id = w.user_id AND m.conversation_key = w.conversation_key " +
+                   "AND (m.created_at, m.id) <= (w.last_read_at, w.last_read_message_id) " +
+                   "ORDER BY m.created_at DESC, m.id DESC LIMIT 1) r ON TRUE " +
+                   "WHERE w.conversation_key = :conversationKey", nativeQuery = true)
+    List<ReadPosition> findReadPositions(@Param("conversationKey") String conversationKey);
+
+    interface ReadPosition {
+        UUID getUserId();
+
+        Long getLastReadSeq();
+
+        LocalDateTime getUpdatedAt();
+    }
+
+    // Creates the receiver's watermark at the start of the conversation; no-op if it already exists
+    @Modifying
+    @Query(value = "INSERT INTO message_read_watermarks (id, user_id, conversation_key, last_read_at, last_read_message_id, updated_at) " +
+                   "VALUES (:id, :userId, :conversationKey, TIMESTAMP '1970-01-01 00:00:00', '00000000-0000-0000-0000-000000000000', now()) " +
+                   "ON CONFLICT (user_id, conversation_key) DO NOTHING", nativeQuery = true)
+    int ensureWatermark(@Param("id") UUID id, @Param("userId") UUID userId,
+                        @Param("conversationKey") String conversationKey);
+
+    /**
+     * Moves the user's watermarks forward to the newest received message at or before the
+     * bound, per conversation, and returns how many messages that marked read. A watermark
+     * only ever lands on a committed message: messages of one conversation commit in
+     * created_at order (they are serialized on the conversation's message_sequences row),
+     * so a message still in flight always sorts after it and stays unread, whatever the
+     * bound says. The count comes from the same snapshot as the update, so it is exact.
+     */
+    @Query(value = "WITH b AS (SELECT w.conversation_key, x.created_at, x.id FROM message_read_watermarks w " +
+                   "CROSS JOIN LATERAL (SELECT m.created_at, m.id FROM messages m WHERE m.receiver_id = w.user_id " +
+                   "AND m.conversation_key = w.conversation_key AND (m.created_at, m.id) <= (:readAt, :messageId) " +
+                   "ORDER BY m.created_at DESC, m.id DESC LIMIT 1) x " +
+                   "WHERE w.user_id = :userId AND (CAST(:conversationKey AS varchar) IS NULL OR w.conversation_key = :conversationKey) " +
+                   "AND (x.created_at, x.id) > (w.last_read_at, w.last_read_message_id)), " +
+                   "moved AS (UPDATE message_read_watermarks w SET last_read_at = b.created_at, last_read_message_id = b.id, updated_at = now() " +
+                   "FROM b WHERE w.user_id = :userId AND w.conversation_key = b.conversation_key " +
+                   "AND (w.last_read_at, w.last_read_message_id) < (b.created_at, b.id) RETURNING w.conversation_key) " +
+                   "SELECT COUNT(*) FROM moved JOIN b ON b.conversation_key = moved.conversation_key " +
+                   "JOIN message_read_watermarks w ON w.user_id = :userId AND w.conversation_key = moved.conversation_key " +
+                   "JOIN messages m ON m.receiver_id = w.user_id AND m.conversation_key = w.conversation_key " +
+                   "AND (m.created_at, m.id) > (w.last_read_at, w.last_read_message_id) " +
+                   "AND (m.created_at, m.id) <= (b.created_at, b.id)", nativeQuery = true)
+    long markReadUpTo(@Param("userId") UUID userId, @Param("conversationKey") String conversationKey,
+                      @Param("readAt") LocalDateTime readAt, @Param("messageId") UUID messageId);
+
+    // Unread = messages after the watermark; each lateral probe is an index range scan over unread rows only
+    @Query(value = "SELECT COALESCE(SUM(u.cnt), 0) FROM message_read_watermarks w CROSS JOIN LATERAL (" +
+                   "SELECT COUNT(*) AS cnt FROM messages m WHERE m.receiver_id = w.user_id AND m.conversation_key = w.conversation_key " +
+                   "AND (m.created_at, m.id) > (w.last_read_at, w.last_read_message_id)) u " +
+                   "WHERE w.user_id = :userId", nativeQuery = true)
+    long countUnread(@Param("userId") UUID userId);
+
+    // countUnread for many users at once; users without any watermark have no row
+    @Query(value = "SELECT w.user_id AS userId, COALESCE(SUM(u.cnt), 0) AS unread FROM message_read_watermarks w CROSS JOIN LATERAL (" +
+                   "SELECT COUNT(*) AS cnt FROM messages m WHERE m.receiver_id = w.user_id AND m.conversation_key = w.conversation_key " +
+                   "AND (m.created_at, m.id) > (w.last_read_at, w.last_read_message_id)) u " +
+                   "WHERE w.user_id IN (:userIds) GROUP BY w.user_id", nativeQuery = true)
+    List<UnreadCount> countUnreadByUser(@Param("userIds") Collection<UUID> userIds);
+
+    interface UnreadCount {
+        UUID getUserId();
+
+        long getUnread();
+    }
+}
@@ -3,16 +3,18 @@ package com.legalease.repository;
 import com.legalease.entity.Case;
 import com.legalease.entity.Message;
 import com.legalease.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface MessageRepository extends JpaRepository<Message, UUID> {
+public interface MessageRepository extends JpaRepository<Message, UUID>, MessageRepositoryCustom {
     
     List<Message> findBySenderAndReceiverOrderByCreatedAtAsc(User sender, User receiver);
     
@@ -28,4 +30,85 @@ public interface MessageRepository extends JpaRepository<Message, UUID> {
     List<Message> findUnreadMessagesByReceiver(@Param("receiver") User receiver);
     
     Long countByReceiverAndIsReadFalse(User receiver);
+    
+    @Query(MessageView.SELECT + "WHERE (m.sender.id = :user1Id AND m.receiver.id = :user2Id) OR (m.sender.id = :user2Id AND m.receiver.id = :user1Id) " +
+           "ORDER BY m.createdAt ASC, m.id ASC")
+    List<MessageView> findConversationViews(@Param("user1Id") UUID user1Id, @Param("user2Id") UUID user2Id);
+    
+    @Query(MessageView.SELECT + "WHERE m.caseEntity.id = :caseId ORDER BY m.createdAt ASC, m.id ASC")
+    List<MessageView> findCaseViews(@Param("caseId") UUID caseId);
+    
+    // A thread between two users is read as one index-ordered LIMIT per direction over
+    // idx_messages_pair_created, merged; an OR of both directions sorts the whole thread.
+    // The second direction skips notes to self, which the first one already returned.
+    String PAIR_VIEW = "SELECT m.id AS id, s.id AS senderId, s.name AS senderName, r.id AS receiverId, r.name AS receiverName, " +
+                       "m.case_id AS caseId, m.conversation_key AS conversationKey, m.seq AS seq, m.content AS content, " +
+                       "m.created_at AS createdAt FROM (";
+    String PAIR_COLUMNS = "(SELECT m.id, m.sender_id, m.receiver_id, m.case_id, m.conversation_key, m.seq, m.content, " +
+                          "m.created_at FROM messages m ";
+    String PAIR_FORWARD = PAIR_COLUMNS + "WHERE m.sender_id = :user1Id AND m.receiver_id = :user2Id ";
+    String PAIR_BACKWARD = PAIR_COLUMNS + "WHERE m.sender_id = :user2Id AND m.receiver_id = :user1Id AND m.sender_id <> m.receiver_id ";
+    String PAIR_JOIN = ") m JOIN users s ON s.id = m.sender_id JOIN users r ON r.id = m.receiver_id ";
+    String NEWEST_FIRST = "ORDER BY m.created_at DESC, m.id DESC LIMIT :limit";
+    String OLDEST_FIRST = "ORDER BY m.created_at ASC, m.id ASC LIMIT :limit";
+    
+    @Query(value = PAIR_VIEW + PAIR_FORWARD + NEWEST_FIRST + ") UNION ALL " + PAIR_BACKWARD + NEWEST_FIRST + ")" +
+                   PAIR_JOIN + NEWEST_FIRST, nativeQuery = true)
+    List<MessageView> findConversationLatest(@Param("user1Id") UUID user1Id, @Param("user2Id") UUID user2Id,
+                                             @Param("limit") int limit);
+    
+    @Query(value = PAIR_VIEW + PAIR_FORWARD + "AND (m.created_at, m.id) < (:createdAt, :id) " + NEWEST_FIRST + ") UNION ALL " +
+                   PAIR_BACKWARD + "AND (m.created_at, m.id) < (:createdAt, :id) " + NEWEST_FIRST + ")" +
+                   PAIR_JOIN + NEWEST_FIRST, nativeQuery = true)
+    List<MessageView> findConversationBefore(@Param("user1Id") UUID user1Id, @Param("user2Id") UUID user2Id,
+                                             @Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id,
+                                             @Param("limit") int limit);
+    
+    @Query(value = PAIR_VIEW + PAIR_FORWARD + "AND (m.created_at, m.id) > (:createdAt, :id) " + OLDEST_FIRST + ") UNION ALL " +
+                   PAIR_BACKWARD + "AND (m.created_at, m.id) > (:createdAt, :id) " + OLDEST_FIRST + ")" +
+                   PAIR_JOIN + OLDEST_FIRST, nativeQuery = true)
+    List<MessageView> findConversationAfter(@Param("user1Id") UUID user1Id, @Param("user2Id") UUID user2Id,
+                                            @Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id,
+                                            @Param("limit") int limit);
+    
+    // Keyset pages: callers pass PageRequest.of(0, limit) so no COUNT query is issued
+    
+    @Query(MessageView.SELECT + "WHERE m.caseEntity.id = :caseId ORDER BY m.createdAt DESC, m.id DESC")
+    List<MessageView> findCaseLatest(@Param("caseId") UUID caseId, Pageable page);
+    
+    @Query(MessageView.SELECT + "WHERE m.caseEntity.id = :caseId " +
+           "AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id)) ORDER BY m.createdAt DESC, m.id DESC")
+    List<MessageView> findCaseBefore(@Param("caseId") UUID caseId, @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") UUID id, Pageable page);
+    
+    @Query(MessageView.SELECT + "WHERE m.caseEntity.id = :caseId " +
+           "AND (m.createdAt > :createdAt OR (m.createdAt = :createdAt AND m.id > :id)) ORDER BY m.createdAt ASC, m.id ASC")
+    List<MessageView> findCaseAfter(@Param("caseId") UUID caseId, @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") UUID id, Pageable page);
+    
+    @Query(MessageView.SELECT + "WHERE m.conversationKey = :conversationKey AND m.seq > :since ORDER BY m.seq ASC")
+    List<MessageView> findConversationSince(@Param("conversationKey") String conversationKey, @Param("since") long since,
+                                            Pageable page);
+    
+    // Full-text match over the caller's threads, scored by ts_rank decayed by age (half weight after 30 days)
+    @Query(value = "SELECT m.id AS id, s.id AS senderId, s.name AS senderName, r.id AS receiverId, r.name AS receiverName, " +
+                   "m.case_id AS caseId, m.conversation_key AS conversationKey, m.seq AS seq, m.content AS content, " +
+                   "m.created_at AS createdAt FROM messages m " +
+                   "JOIN users s ON s.id = m.sender_id JOIN users r ON r.id = m.receiver_id " +
+                   "CROSS JOIN websearch_to_tsquery('english', :query) q " +
+                   "WHERE m.content_tsv @@ q AND (m.sender_id = :userId OR m.receiver_id = :userId) " +
+                   "ORDER BY ts_rank(m.content_tsv, q) / (1 + EXTRACT(EPOCH FROM (now() - m.created_at)) / 2592000) DESC, " +
+                   "m.created_at DESC, m.id DESC LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<MessageView> search(@Param("userId") UUID userId, @Param("query") String query,
+                             @Param("limit") int limit, @Param("offset") long offset);
+    
+    // Messages after the receiver's read watermark in each of their conversations
+    @Query(value = "SELECT m.id AS id, s.id AS senderId, s.name AS senderName, r.id AS receiverId, r.name AS receiverName, " +
+                   "m.case_id AS caseId, m.conversation_key AS conversationKey, m.seq AS seq, m.content AS content, " +
+                   "m.created_at AS createdAt FROM messages m JOIN message_read_watermarks w " +
+                   "ON w.user_id = m.receiver_id AND w.conversation_key = m.conversation_key " +
+                   "JOIN users s ON s.id = m.sender_id JOIN users r ON r.id = m.receiver_id " +
+                   "WHERE m.receiver_id = :receiverId AND (m.created_at, m.id) > (w.last_read_at, w.last_read_message_id) " +
+                   "ORDER BY m.created_at DESC", nativeQuery = true)
+    List<MessageView> findUnreadAfterWatermark(@Param("receiverId") UUID receiverId);
 }
@@ -0,0 +1,16 @@
+package com.legalease.repository;
+
+import com.legalease.entity.Message;
+
+import java.util.List;
+
+public interface MessageRepositoryCustom {
+
+    /**
+     * Inserts fully populated messages (id, createdAt and conversation key already
+     * assigned) as one JDBC batch, bypassing the persistence context. With
+     * reWriteBatchedInserts on the JDBC URL the driver sends that as multi-row
+     * INSERTs; without it, as one INSERT per row in a single round trip.
+     */
+    void insertBatch(List<Message> messages);
+}
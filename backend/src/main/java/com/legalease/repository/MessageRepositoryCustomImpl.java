@@ -0,0 +1,34 @@
+package com.legalease.repository;
+
+import com.legalease.entity.Message;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class MessageRepositoryCustomImpl implements MessageRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO messages (id, sender_id, receiver_id, case_id, conversation_key, seq, content, is_read, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, false, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertBatch(List<Message> messages) {
+        // Only ids are read from the sender/receiver/case references, so no proxy is initialized
+        jdbcTemplate.batchUpdate(INSERT_SQL, messages, messages.size(), (ps, message) -> {
+            ps.setObject(1, message.getId());
+            ps.setObject(2, message.getSender().getId());
+            ps.setObject(3, message.getReceiver().getId());
+            ps.setObject(4, message.getCaseEntity() != null ? message.getCaseEntity().getId() : null, Types.OTHER);
+            ps.setString(5, message.getConversationKey());
+            ps.setLong(6, message.getSeq());
+            ps.setString(7, message.getContent());
+            ps.setTimestamp(8, Timestamp.valueOf(message.getCreatedAt()));
+        });
+    }
+}
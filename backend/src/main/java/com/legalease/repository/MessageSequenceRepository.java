@@ -0,0 +1,17 @@
+package com.legalease.repository;
+
+import com.legalease.entity.MessageSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MessageSequenceRepository extends JpaRepository<MessageSequence, String> {
+
+    // Reserves the next count numbers in the conversation and returns the highest one
+    @Query(value = "INSERT INTO message_sequences (conversation_key, last_seq) VALUES (:conversationKey, :count) " +
+                   "ON CONFLICT (conversation_key) DO UPDATE SET last_seq = message_sequences.last_seq + EXCLUDED.last_seq " +
+                   "RETURNING last_seq", nativeQuery = true)
+    long allocate(@Param("conversationKey") String conversationKey, @Param("count") long count);
+}
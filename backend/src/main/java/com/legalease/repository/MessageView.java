@@ -0,0 +1,36 @@
+package com.legalease.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read-side row for a message with the sender and receiver names already joined in,
+ * so listing a thread is one statement instead of one per lazy user reference.
+ */
+public interface MessageView {
+
+    // JPQL select list shared by the view queries in MessageRepository
+    String SELECT = "SELECT m.id AS id, s.id AS senderId, s.name AS senderName, r.id AS receiverId, r.name AS receiverName, " +
+                    "c.id AS caseId, m.conversationKey AS conversationKey, m.seq AS seq, m.content AS content, " +
+                    "m.createdAt AS createdAt FROM Message m JOIN m.sender s JOIN m.receiver r LEFT JOIN m.caseEntity c ";
+
+    UUID getId();
+
+    UUID getSenderId();
+
+    String getSenderName();
+
+    UUID getReceiverId();
+
+    String getReceiverName();
+
+    UUID getCaseId();
+
+    String getConversationKey();
+
+    Long getSeq();
+
+    String getContent();
+
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,27 @@
+package com.legalease.repository;
+
+import com.legalease.entity.Review;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ReviewRepository extends JpaRepository<Review, UUID> {
+    
+    // Locks the row so two concurrent edits of one review cannot both apply a delta from the same old rating
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Review r WHERE r.caseEntity.id = :caseId")
+    Optional<Review> findByCaseIdForUpdate(@Param("caseId") UUID caseId);
+    
+    // A Slice reads one row past the page to tell whether another follows, without a COUNT query
+    @Query("SELECT r FROM Review r JOIN FETCH r.client WHERE r.lawyer.id = :lawyerId ORDER BY r.createdAt DESC, r.id DESC")
+    Slice<Review> findByLawyer(@Param("lawyerId") UUID lawyerId, Pageable pageable);
+}
@@ -7,11 +7,13 @@ import com.legalease.entity.Client;
 import com.legalease.entity.Lawyer;
 import com.legalease.entity.User;
 import com.legalease.entity.UserRole;
+import com.legalease.event.LawyerChangedEvent;
 import com.legalease.repository.ClientRepository;
 import com.legalease.repository.LawyerRepository;
 import com.legalease.repository.UserRepository;
 import com.legalease.security.JwtUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -28,6 +30,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional
     public AuthResponse registerUser(UserRegistrationRequest request) {
@@ -60,6 +63,7 @@ public class AuthService {
             lawyer.setVerified(false);
             lawyer.setHourlyRate(java.math.BigDecimal.valueOf(100.00));
             lawyerRepository.save(lawyer);
+            eventPublisher.publishEvent(new LawyerChangedEvent(savedUser.getId()));
         } else if (role == UserRole.CLIENT) {
             Client client = new Client();
             client.setUser(savedUser);
@@ -7,20 +7,34 @@ import com.legalease.entity.User;
 import com.legalease.repository.CaseDocumentRepository;
 import com.legalease.repository.CaseRepository;
 import com.legalease.repository.UserRepository;
+import com.legalease.storage.DocumentContent;
+import com.legalease.storage.DocumentStorage;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional
@@ -29,10 +43,20 @@ public class CaseDocumentService {
     private final CaseDocumentRepository documentRepository;
     private final CaseRepository caseRepository;
     private final UserRepository userRepository;
+    private final DocumentBlobStore blobStore;
+    private final DocumentStorage storage;
+    private final DocumentCompression compression;
+    private final TransactionTemplate transactionTemplate;
 
-    @Value("${app.storage.case-docs:uploads/case-docs}")
-    private String storageRoot;
+    // Local scratch space for uploads on their way into storage
+    @Value("${app.storage.staging-dir:uploads/staging}")
+    private String stagingDir;
 
+    /**
+     * Stores the upload before any transaction starts and creates the document row in a
+     * short one afterwards, so no connection is held while the file is copied.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public CaseDocumentDto upload(UUID caseId, UUID lawyerId, MultipartFile file) throws IOException {
         Case caseEntity = caseRepository.findById(caseId)
                 .orElseThrow(() -> new RuntimeException("Case not found"));
@@ -40,22 +64,129 @@ public class CaseDocumentService {
                 .orElseThrow(() -> new RuntimeException("Lawyer not found"));
 
         String original = file.getOriginalFilename() != null ? file.getOriginalFilename() : "file";
-        String ext = original.contains(".") ? original.substring(original.lastIndexOf('.')) : "";
-        String storedName = UUID.randomUUID() + ext;
+        String contentType = file.getContentType() != null ? file.getContentType() : "application/octet-stream";
+        StagedContent staged;
+        try (InputStream in = file.getInputStream()) {
+            staged = stage(in, file.getSize(), contentType, caseEntity, original);
+        }
+        try {
+            return transactionTemplate.execute(status -> {
+                try {
+                    return register(caseEntity, lawyer, original, contentType, staged);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            discard(staged);
+            throw ex.getCause();
+        } catch (RuntimeException ex) {
+            discard(staged);
+            throw ex;
+        }
+    }
+
+    /**
+     * Puts content into storage, compressing it on the way when its type calls for it,
+     * ahead of the transaction that registers it. Runs outside any transaction. Once
+     * staged, content is either registered or discarded.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public StagedContent stage(InputStream content, long size, String contentType, Case caseEntity,
+                               String originalName) throws IOException {
+        String encoding = compression.encodingFor(contentType, size);
+        if (blobStore.isEnabled()) {
+            DocumentBlobStore.StoredBlob blob = blobStore.prepare(content, encoding);
+            return new StagedContent(blob.getStorageKey(), blob.getSizeBytes(), blob.getStoredSizeBytes(),
+                    blob.getContentEncoding(), blob);
+        }
+
+        String key = newStorageKey(caseEntity, originalName);
+        Path staged = newStagingFile();
+        Path raw = null;
+        try {
+            long rawSize;
+            // Compressed in the same pass that takes the content off the request
+            try (OutputStream out = compression.encoder(Files.newOutputStream(staged), encoding)) {
+                rawSize = content.transferTo(out);
+            }
+            if (encoding != null && !compression.worthwhile(rawSize, Files.size(staged))) {
+                raw = newStagingFile();
+                compression.recode(staged, encoding, raw, null);
+                Files.move(raw, staged, StandardCopyOption.REPLACE_EXISTING);
+                encoding = null;
+            }
+            long storedSize = Files.size(staged);
+            DocumentBlobStore.sync(staged);
+            storage.put(key, staged);
+            return new StagedContent(key, rawSize, storedSize, encoding, null);
+        } finally {
+            Files.deleteIfExists(staged);
+            if (raw != null) {
+                Files.deleteIfExists(raw);
+            }
+        }
+    }
+
+    // Creates the document row for staged content; must run in a transaction, which then holds any blob's row lock
+    @Transactional(propagation = Propagation.MANDATORY)
+    public CaseDocumentDto register(Case caseEntity, User lawyer, String originalName, String contentType,
+                                    StagedContent staged) throws IOException {
+        DocumentBlobStore.StoredBlob blob = staged.getBlob();
+        if (blob != null) {
+            blobStore.acquire(blob);
+        }
+        String key = staged.getStorageKey();
+        return register(caseEntity, lawyer, originalName,
+                blob != null ? blob.getSha256() : key.substring(key.lastIndexOf('/') + 1), contentType,
+                staged.getSizeBytes(), staged.getStoredSizeBytes(), staged.getContentEncoding(), key,
+                blob != null ? blob.getSha256() : null);
+    }
+
+    /**
+     * Removes staged content that was not registered after all. A blob is only removed
+     * when no other document refers to it.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void discard(StagedContent staged) {
+        if (staged.getBlob() != null) {
+            blobStore.discard(staged.getBlob());
+            return;
+        }
+        deleteObject(staged.getStorageKey());
+    }
+
+    // A fresh key under the case's prefix, keeping the original extension
+    public String newStorageKey(Case caseEntity, String originalName) {
+        String ext = originalName.contains(".") ? originalName.substring(originalName.lastIndexOf('.')) : "";
+        if (!ext.matches("\\.[A-Za-z0-9]{1,16}")) {
+            // Client-supplied names must not be able to steer the key
+            ext = "";
+        }
+        return "case-docs/" + caseEntity.getId() + "/" + UUID.randomUUID() + ext;
+    }
 
-        Path dir = Paths.get(storageRoot, caseEntity.getId().toString());
+    // A fresh, not yet created file in the local staging directory
+    public Path newStagingFile() throws IOException {
+        Path dir = Paths.get(stagingDir);
         Files.createDirectories(dir);
-        Path dest = dir.resolve(storedName);
-        file.transferTo(dest);
+        return dir.resolve(UUID.randomUUID() + ".part");
+    }
 
+    private CaseDocumentDto register(Case caseEntity, User lawyer, String originalName, String storedName,
+                                     String contentType, long sizeBytes, long storedSizeBytes, String contentEncoding,
+                                     String storageKey, String contentSha256) {
         CaseDocument doc = new CaseDocument();
         doc.setCaseEntity(caseEntity);
         doc.setLawyer(lawyer);
-        doc.setOriginalName(original);
+        doc.setOriginalName(originalName);
         doc.setStoredName(storedName);
-        doc.setContentType(file.getContentType() != null ? file.getContentType() : "application/octet-stream");
-        doc.setSizeBytes(file.getSize());
-        doc.setStoragePath(dest.toString());
+        doc.setContentType(contentType);
+        doc.setSizeBytes(sizeBytes);
+        doc.setStoredSizeBytes(storedSizeBytes);
+        doc.setContentEncoding(contentEncoding);
+        doc.setStoragePath(storageKey);
+        doc.setContentSha256(contentSha256);
 
         CaseDocument saved = documentRepository.save(doc);
         return toDto(saved);
@@ -70,13 +201,20 @@ public class CaseDocumentService {
                 .stream().map(this::toDto).collect(Collectors.toList());
     }
 
-    public byte[] download(UUID documentId, UUID lawyerId) throws IOException {
-        CaseDocument doc = documentRepository.findById(documentId)
-                .orElseThrow(() -> new RuntimeException("Document not found"));
-        if (!doc.getLawyer().getId().equals(lawyerId)) {
-            throw new RuntimeException("Forbidden");
+    /**
+     * The document's bytes for a download: as stored when the caller passes the stored
+     * coding through to the client, and as uploaded otherwise. Stored content never
+     * changes after upload, so callers can stream it without a transaction; they close
+     * it once the response is written.
+     */
+    public DocumentContent openContent(CaseDocument doc, boolean passEncoding) throws IOException {
+        DocumentContent stored;
+        try {
+            stored = storage.read(doc.getStoragePath());
+        } catch (NoSuchFileException ex) {
+            throw new RuntimeException("Document file not found");
         }
-        return Files.readAllBytes(Paths.get(doc.getStoragePath()));
+        return passEncoding ? stored : compression.decoded(stored, doc.getContentEncoding(), doc.getSizeBytes());
     }
 
     public CaseDocument getDocument(UUID documentId, UUID lawyerId) {
@@ -94,8 +232,28 @@ public class CaseDocumentService {
         if (!doc.getLawyer().getId().equals(lawyerId)) {
             throw new RuntimeException("Forbidden");
         }
-        Files.deleteIfExists(Paths.get(doc.getStoragePath()));
         documentRepository.delete(doc);
+        if (doc.getContentSha256() != null) {
+            // Other documents may share the blob; it is only removed with the last reference
+            blobStore.release(doc.getContentSha256());
+        } else {
+            // Only once the row is gone for good: a rollback must find the file still there
+            String key = doc.getStoragePath();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteObject(key);
+                }
+            });
+        }
+    }
+
+    private void deleteObject(String key) {
+        try {
+            storage.delete(key);
+        } catch (IOException ex) {
+            log.warn("Could not delete document {}: {}", key, ex.getMessage());
+        }
     }
 
     private CaseDocumentDto toDto(CaseDocument doc) {
@@ -110,6 +268,18 @@ public class CaseDocumentService {
         dto.setCreatedAt(doc.getCreatedAt());
         return dto;
     }
-}
-
 
+    /**
+     * Content already in storage but not yet referenced by any document row. In
+     * content-addressed mode it is a blob, and registering it adds a reference.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static final class StagedContent {
+        private final String storageKey;
+        private final long sizeBytes;
+        private final long storedSizeBytes;
+        private final String contentEncoding;
+        private final DocumentBlobStore.StoredBlob blob;
+    }
+}
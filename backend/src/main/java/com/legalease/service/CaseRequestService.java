@@ -6,9 +6,11 @@ import com.legalease.entity.CaseRequest;
 import com.legalease.entity.CaseType;
 import com.legalease.entity.RequestStatus;
 import com.legalease.entity.User;
+import com.legalease.event.LawyerWorkloadEvent;
 import com.legalease.repository.CaseRequestRepository;
 import com.legalease.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +27,7 @@ public class CaseRequestService {
     private final CaseRequestRepository caseRequestRepository;
     private final UserRepository userRepository;
     private final CaseService caseService;
+    private final ApplicationEventPublisher eventPublisher;
     
     public CaseRequestDto createRequest(UUID clientId, UUID lawyerId, String title, 
                                    String description, CaseType type) {
@@ -42,6 +45,7 @@ public class CaseRequestService {
         request.setStatus(RequestStatus.PENDING);
         
         CaseRequest savedRequest = caseRequestRepository.save(request);
+        eventPublisher.publishEvent(new LawyerWorkloadEvent(lawyerId, 0, 1));
         return convertToDtoWithFetchedData(savedRequest);
     }
     
@@ -69,6 +73,7 @@ public class CaseRequestService {
         CaseRequest request = caseRequestRepository.findById(requestId)
                 .orElseThrow(() -> new RuntimeException("Request not found"));
         
+        leavePending(request);
         request.setStatus(RequestStatus.ACCEPTED);
         CaseRequest savedRequest = caseRequestRepository.save(request);
         
@@ -93,6 +98,7 @@ public class CaseRequestService {
         CaseRequest request = caseRequestRepository.findById(requestId)
                 .orElseThrow(() -> new RuntimeException("Request not found"));
         
+        leavePending(request);
         request.setStatus(RequestStatus.REJECTED);
         CaseRequest savedRequest = caseRequestRepository.save(request);
         return convertToDtoWithFetchedData(savedRequest);
@@ -102,10 +108,18 @@ public class CaseRequestService {
         CaseRequest request = caseRequestRepository.findById(requestId)
                 .orElseThrow(() -> new RuntimeException("Request not found"));
         
+        leavePending(request);
         request.setStatus(RequestStatus.CANCELLED);
         caseRequestRepository.save(request);
     }
     
+    // Called before a status change; the lawyer's pending count only drops if the request was still pending
+    private void leavePending(CaseRequest request) {
+        if (request.getStatus() == RequestStatus.PENDING) {
+            eventPublisher.publishEvent(new LawyerWorkloadEvent(request.getLawyer().getId(), 0, -1));
+        }
+    }
+    
     private CaseRequestDto convertToDto(CaseRequest request) {
         CaseRequestDto dto = new CaseRequestDto();
         dto.setId(request.getId());
@@ -5,9 +5,11 @@ import com.legalease.entity.Case;
 import com.legalease.entity.CaseStatus;
 import com.legalease.entity.CaseType;
 import com.legalease.entity.User;
+import com.legalease.event.LawyerWorkloadEvent;
 import com.legalease.repository.CaseRepository;
 import com.legalease.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +26,7 @@ public class CaseService {
     
     private final CaseRepository caseRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     public CaseDto createCase(UUID clientId, UUID lawyerId, String title, String description, 
                              CaseType type, BigDecimal hourlyRate) {
@@ -42,6 +45,7 @@ public class CaseService {
         caseEntity.setStatus(CaseStatus.ACTIVE);
         
         Case savedCase = caseRepository.save(caseEntity);
+        publishWorkload(lawyerId, LawyerWorkloadTable.isOpen(savedCase.getStatus()) ? 1 : 0);
         return convertToDto(savedCase);
     }
     
@@ -69,8 +73,11 @@ public class CaseService {
         Case caseEntity = caseRepository.findById(caseId)
                 .orElseThrow(() -> new RuntimeException("Case not found"));
         
+        boolean wasOpen = LawyerWorkloadTable.isOpen(caseEntity.getStatus());
         caseEntity.setStatus(status);
         Case updatedCase = caseRepository.save(caseEntity);
+        publishWorkload(updatedCase.getLawyer().getId(),
+                (LawyerWorkloadTable.isOpen(status) ? 1 : 0) - (wasOpen ? 1 : 0));
         return convertToDto(updatedCase);
     }
     
@@ -89,9 +96,17 @@ public class CaseService {
     
     public void deleteCase(UUID caseId) {
         // Ensure documents are removed via FK ON DELETE CASCADE (DB) or manual cleanup if needed
+        caseRepository.findById(caseId).ifPresent(caseEntity -> publishWorkload(caseEntity.getLawyer().getId(),
+                LawyerWorkloadTable.isOpen(caseEntity.getStatus()) ? -1 : 0));
         caseRepository.deleteById(caseId);
     }
     
+    private void publishWorkload(UUID lawyerId, int openCasesDelta) {
+        if (openCasesDelta != 0) {
+            eventPublisher.publishEvent(new LawyerWorkloadEvent(lawyerId, openCasesDelta, 0));
+        }
+    }
+    
     private CaseDto convertToDto(Case caseEntity) {
         CaseDto dto = new CaseDto();
         dto.setId(caseEntity.getId());
@@ -0,0 +1,28 @@
+package com.legalease.service;
+
+import java.util.UUID;
+
+/**
+ * Stable identifiers for message threads: one per case, and one per unordered pair
+ * of users for direct messages. Stored on every message so per-thread state (read
+ * watermarks, inbox rows) can be keyed without re-deriving the pair.
+ */
+public final class ConversationKeys {
+
+    private ConversationKeys() {}
+
+    public static String of(UUID senderId, UUID receiverId, UUID caseId) {
+        return caseId != null ? forCase(caseId) : direct(senderId, receiverId);
+    }
+
+    public static String forCase(UUID caseId) {
+        return "case:" + caseId;
+    }
+
+    public static String direct(UUID user1Id, UUID user2Id) {
+        String a = user1Id.toString();
+        String b = user2Id.toString();
+        // Same ordering as LEAST/GREATEST over uuid::text, used by the backfill
+        return a.compareTo(b) <= 0 ? "dm:" + a + ":" + b : "dm:" + b + ":" + a;
+    }
+}
@@ -0,0 +1,281 @@
+package com.legalease.service;
+
+import com.legalease.entity.DocumentBlob;
+import com.legalease.repository.DocumentBlobRepository;
+import com.legalease.storage.DocumentStorage;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Content-addressed document storage. Each distinct file is kept once under the key
+ * blobs/{ab}/{cd}/{sha256}, with the stored coding appended when it is compressed
+ * (e.g. {sha256}.gzip), and reference-counted in document_blobs, so the same court
+ * order uploaded to fifty cases takes the space of one.
+ *
+ * Content is stored before any transaction starts and referenced afterwards in a short
+ * one. A blob's row is locked by whichever transaction adds or drops a reference, and
+ * objects are only ever deleted by a reclaim holding that lock on a row without
+ * references. Adding a reference checks under the lock that the object is still there,
+ * so an upload of some content can never end up referencing an object reclaimed
+ * meanwhile. Preparing content stores the object again whenever it is missing.
+ */
+@Slf4j
+@Component
+public class DocumentBlobStore {
+
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    private final DocumentBlobRepository blobRepository;
+    private final DocumentStorage storage;
+    private final DocumentCompression compression;
+    private final TransactionTemplate newTransaction;
+    private final boolean enabled;
+    private final Path stagingDir;
+
+    public DocumentBlobStore(DocumentBlobRepository blobRepository,
+                             DocumentStorage storage,
+                             DocumentCompression compression,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.storage.mode:path}") String mode,
+                             @Value("${app.storage.staging-dir:uploads/staging}") String stagingDir) {
+        this.blobRepository = blobRepository;
+        this.storage = storage;
+        this.compression = compression;
+        // Reclaims also run after a commit, while the finished transaction's resources are still bound
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = "content-addressed".equalsIgnoreCase(mode);
+        this.stagingDir = Paths.get(stagingDir);
+    }
+
+    // False in "path" mode, where every upload is its own file under the case directory
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Hashes the content and, when an encoding is given, compresses it on the way to a
+     * staged file, then makes sure storage holds the blob. Runs outside any transaction:
+     * for a large file this is where the time goes, and no row lock or connection is
+     * held meanwhile. Content that is already stored keeps the form it was first stored
+     * in. The result still has to be referenced with acquire().
+     */
+    public StoredBlob prepare(InputStream content, String encoding) throws IOException {
+        Path temp = newTempFile();
+        Path raw = null;
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (InputStream in = new DigestInputStream(content, digest);
+                 OutputStream out = compression.encoder(Files.newOutputStream(temp), encoding)) {
+                size = copy(in, out);
+            }
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            if (encoding != null && !compression.worthwhile(size, Files.size(temp))) {
+                raw = newTempFile();
+                compression.recode(temp, encoding, raw, null);
+                return put(sha256, size, raw, null);
+            }
+            return put(sha256, size, temp, encoding);
+        } finally {
+            Files.deleteIfExists(temp);
+            if (raw != null) {
+                Files.deleteIfExists(raw);
+            }
+        }
+    }
+
+    /**
+     * Adds a reference to a prepared blob, which holds the blob's row lock for the rest
+     * of the transaction. Fails when the blob changed after it was prepared, i.e. it was
+     * reclaimed or first stored in another form by a concurrent upload; preparing the
+     * content again stores it as the row now says.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void acquire(StoredBlob blob) throws IOException {
+        blobRepository.acquire(blob.getSha256(), blob.getSizeBytes(), blob.getStoredSizeBytes(),
+                blob.getContentEncoding(), blob.getStorageKey());
+        DocumentBlob row = blobRepository.findById(blob.getSha256())
+                .orElseThrow(() -> new IllegalStateException("Blob " + blob.getSha256() + " vanished while referenced"));
+        if (!row.getStoragePath().equals(blob.getStorageKey())
+                || !Objects.equals(row.getContentEncoding(), blob.getContentEncoding())
+                || !storage.exists(blob.getStorageKey())) {
+            throw new RuntimeException("Document storage changed during the upload, please retry");
+        }
+    }
+
+    /**
+     * Drops one reference. The object is only reclaimed once the transaction has
+     * committed, so a rollback never leaves a referenced blob without its object.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(String sha256) {
+        blobRepository.release(sha256);
+        if (blobRepository.findRefCount(sha256).orElse(0) == 0) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reclaim(sha256, null);
+                }
+            });
+        }
+    }
+
+    /**
+     * Removes a prepared blob that was not referenced after all, e.g. because the
+     * transaction meant to reference it rolled back. The object stays when a document
+     * refers to it, which may have happened meanwhile.
+     */
+    public void discard(StoredBlob blob) {
+        reclaim(blob.getSha256(), blob.getStorageKey());
+    }
+
+    // Picks up what a reclaim interrupted by a failure or a restart left behind
+    @Scheduled(initialDelayString = "${app.storage.reclaim-ms:3600000}",
+               fixedDelayString = "${app.storage.reclaim-ms:3600000}")
+    public void reclaimUnreferenced() {
+        for (String sha256 : blobRepository.findUnreferenced()) {
+            reclaim(sha256, null);
+        }
+    }
+
+    /**
+     * Deletes the blob's object, and the object at key if one is given, unless a
+     * document refers to it. Runs in a transaction of its own that holds the blob's row
+     * lock throughout, creating an unreferenced row first when there is none, and only
+     * removes the row once the objects are gone. A reclaim that fails part-way leaves an
+     * unreferenced row behind to be retried.
+     */
+    private void reclaim(String sha256, String key) {
+        try {
+            newTransaction.executeWithoutResult(status -> {
+                if (key != null) {
+                    blobRepository.addUnreferenced(sha256, key);
+                }
+                DocumentBlob row = blobRepository.findByIdForUpdate(sha256).orElse(null);
+                if (row == null) {
+                    return;
+                }
+                boolean unreferenced = row.getRefCount() == 0;
+                try {
+                    if (unreferenced) {
+                        storage.delete(row.getStoragePath());
+                    }
+                    if (key != null && (unreferenced || !key.equals(row.getStoragePath()))) {
+                        storage.delete(key);
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                if (unreferenced) {
+                    blobRepository.deleteIfUnreferenced(sha256);
+                }
+            });
+        } catch (RuntimeException ex) {
+            log.warn("Could not reclaim blob {}: {}", sha256, ex.getMessage());
+        }
+    }
+
+    /**
+     * Stores the staged file unless the object is there already. A blob that has a row
+     * keeps the form recorded there, and the staged file is recoded to match when it was
+     * staged differently.
+     */
+    private StoredBlob put(String sha256, long size, Path staged, String encoding) throws IOException {
+        DocumentBlob row = blobRepository.findById(sha256).orElse(null);
+        String storedEncoding = row != null ? row.getContentEncoding() : encoding;
+        String key = row != null ? row.getStoragePath() : keyOf(sha256, storedEncoding);
+        long storedSize = row == null ? Files.size(staged)
+                : row.getStoredSizeBytes() != null ? row.getStoredSizeBytes() : size;
+        if (!storage.exists(key)) {
+            if (Objects.equals(encoding, storedEncoding)) {
+                sync(staged);
+                storage.put(key, staged);
+            } else {
+                Path recoded = newTempFile();
+                try {
+                    compression.recode(staged, encoding, recoded, storedEncoding);
+                    sync(recoded);
+                    storage.put(key, recoded);
+                } finally {
+                    Files.deleteIfExists(recoded);
+                }
+            }
+        }
+        return new StoredBlob(sha256, key, size, storedSize, storedEncoding);
+    }
+
+    // Each form has a key of its own, so an object left in one form is never taken for the other
+    private static String keyOf(String sha256, String encoding) {
+        String key = "blobs/" + sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256;
+        return encoding != null ? key + "." + encoding : key;
+    }
+
+    private Path newTempFile() throws IOException {
+        Files.createDirectories(stagingDir);
+        return stagingDir.resolve(UUID.randomUUID() + ".part");
+    }
+
+    // A document row must never point at bytes that are still in the page cache only
+    static void sync(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    private static long copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_BYTES];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+            total += read;
+        }
+        return total;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static final class StoredBlob {
+        private final String sha256;
+        private final String storageKey;
+        private final long sizeBytes;
+        private final long storedSizeBytes;
+        private final String contentEncoding;
+    }
+}
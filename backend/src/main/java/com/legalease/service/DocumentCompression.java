@@ -0,0 +1,145 @@
+package com.legalease.service;
+
+import com.legalease.storage.DocumentContent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression of case documents at rest. Whether a document is compressed depends on
+ * its content type: plain text, XML and JSON, legacy binary Office files and raw scans
+ * shrink several times over, while PDFs, JPEGs, video and the zipped Office formats
+ * (DOCX, XLSX, PPTX) are compressed already and are stored as uploaded.
+ *
+ * Stored documents are gzip, the coding every HTTP client accepts, so a download can
+ * hand the stored bytes straight through with Content-Encoding: gzip and neither side
+ * decompresses anything on the server.
+ */
+@Component
+public class DocumentCompression {
+
+    public static final String GZIP = "gzip";
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final boolean enabled;
+    private final int level;
+    private final long minSize;
+    private final List<MediaType> types;
+
+    public DocumentCompression(@Value("${app.storage.compression.enabled:false}") boolean enabled,
+                               @Value("${app.storage.compression.level:6}") int level,
+                               @Value("${app.storage.compression.min-size:1024}") long minSize,
+                               @Value("${app.storage.compression.types:text/*,application/json,application/xml}") List<String> types) {
+        this.enabled = enabled;
+        this.level = level;
+        this.minSize = minSize;
+        this.types = types.stream().map(String::trim).filter(t -> !t.isEmpty()).map(MediaType::parseMediaType).toList();
+    }
+
+    /**
+     * The coding to store a document of this type and size in, or null to store it as it is.
+     */
+    public String encodingFor(String contentType, long sizeBytes) {
+        if (!enabled || sizeBytes < minSize || contentType == null) {
+            return null;
+        }
+        MediaType type;
+        try {
+            type = MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException ex) {
+            return null;
+        }
+        return types.stream().anyMatch(t -> t.includes(type)) ? GZIP : null;
+    }
+
+    // Compressed copies that save less than a tenth are not worth decompressing on every read
+    public boolean worthwhile(long rawSize, long storedSize) {
+        return storedSize <= rawSize - rawSize / 10;
+    }
+
+    // Wraps out so that what is written to it is stored in the given coding
+    public OutputStream encoder(OutputStream out, String encoding) throws IOException {
+        if (encoding == null) {
+            return out;
+        }
+        requireGzip(encoding);
+        return new GZIPOutputStream(out, BUFFER_BYTES) {
+            {
+                def.setLevel(level);
+            }
+        };
+    }
+
+    // Wraps in, content stored in the given coding, so that it reads as uploaded
+    public InputStream decoder(InputStream in, String encoding) throws IOException {
+        if (encoding == null) {
+            return in;
+        }
+        requireGzip(encoding);
+        return new GZIPInputStream(in, BUFFER_BYTES);
+    }
+
+    // Rewrites a file stored in one coding into target in another, in one streaming pass
+    public void recode(Path source, String sourceEncoding, Path target, String targetEncoding) throws IOException {
+        try (InputStream in = decoder(Files.newInputStream(source), sourceEncoding);
+             OutputStream out = encoder(Files.newOutputStream(target), targetEncoding)) {
+            in.transferTo(out);
+        }
+    }
+
+    /**
+     * The stored content as uploaded, decompressed on the fly. A range further into the
+     * file means decompressing everything before it, which is why clients that accept
+     * the stored coding are given the stored bytes instead.
+     */
+    public DocumentContent decoded(DocumentContent stored, String encoding, long rawLength) {
+        if (encoding == null) {
+            return stored;
+        }
+        return new DocumentContent() {
+            @Override
+            public long getLength() {
+                return rawLength;
+            }
+
+            @Override
+            public Path getLocalFile() {
+                return null;
+            }
+
+            @Override
+            public InputStream open(long start, long count) throws IOException {
+                InputStream in = decoder(stored.open(0, stored.getLength()), encoding);
+                try {
+                    in.skipNBytes(start);
+                } catch (IOException ex) {
+                    in.close();
+                    throw ex;
+                }
+                return in;
+            }
+
+            @Override
+            public void close() throws IOException {
+                stored.close();
+            }
+        };
+    }
+
+    private static void requireGzip(String encoding) {
+        if (!GZIP.equals(encoding)) {
+            throw new IllegalStateException("Unsupported document encoding: " + encoding);
+        }
+    }
+}
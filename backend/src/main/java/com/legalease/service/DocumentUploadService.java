@@ -0,0 +1,398 @@
+package com.legalease.service;
+
+import com.legalease.dto.CaseDocumentDto;
+import com.legalease.dto.DocumentUploadDto;
+import com.legalease.dto.DocumentUploadRequest;
+import com.legalease.entity.Case;
+import com.legalease.entity.DocumentUpload;
+import com.legalease.entity.User;
+import com.legalease.repository.CaseRepository;
+import com.legalease.repository.DocumentUploadChunkRepository;
+import com.legalease.repository.DocumentUploadRepository;
+import com.legalease.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Enumeration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Resumable chunked uploads. A session fixes the file size and chunk size up front;
+ * each chunk is streamed from the request body to a file of its own while its SHA-256
+ * is computed, and only replaces the chunk's earlier copy and is recorded when the
+ * checksum matches. Chunks may arrive in any order, in parallel and more than once.
+ * Committing checks that every chunk is present and only then creates the CaseDocument.
+ */
+@Slf4j
+@Service
+public class DocumentUploadService {
+
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    private final DocumentUploadRepository uploadRepository;
+    private final DocumentUploadChunkRepository chunkRepository;
+    private final CaseRepository caseRepository;
+    private final UserRepository userRepository;
+    private final CaseDocumentService caseDocumentService;
+    private final TransactionTemplate transactionTemplate;
+    private final int defaultChunkSize;
+    private final int minChunkSize;
+    private final int maxChunkSize;
+    private final long maxFileSize;
+    private final long sessionTtlMs;
+
+    public DocumentUploadService(DocumentUploadRepository uploadRepository,
+                                 DocumentUploadChunkRepository chunkRepository,
+                                 CaseRepository caseRepository,
+                                 UserRepository userRepository,
+                                 CaseDocumentService caseDocumentService,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${app.storage.upload.chunk-size:8388608}") int defaultChunkSize,
+                                 @Value("${app.storage.upload.min-chunk-size:262144}") int minChunkSize,
+                                 @Value("${app.storage.upload.max-chunk-size:67108864}") int maxChunkSize,
+                                 @Value("${app.storage.upload.max-file-size:10737418240}") long maxFileSize,
+                                 @Value("${app.storage.upload.session-ttl-ms:86400000}") long sessionTtlMs) {
+        this.uploadRepository = uploadRepository;
+        this.chunkRepository = chunkRepository;
+        this.caseRepository = caseRepository;
+        this.userRepository = userRepository;
+        this.caseDocumentService = caseDocumentService;
+        this.transactionTemplate = transactionTemplate;
+        this.defaultChunkSize = defaultChunkSize;
+        this.minChunkSize = minChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        this.maxFileSize = maxFileSize;
+        this.sessionTtlMs = sessionTtlMs;
+    }
+
+    @Transactional
+    public DocumentUploadDto createUpload(UUID caseId, UUID lawyerId, DocumentUploadRequest request) throws IOException {
+        Case caseEntity = caseRepository.findById(caseId)
+                .orElseThrow(() -> new RuntimeException("Case not found"));
+        User lawyer = userRepository.findById(lawyerId)
+                .orElseThrow(() -> new RuntimeException("Lawyer not found"));
+        if (request.getTotalSize() > maxFileSize) {
+            throw new RuntimeException("File is larger than the " + maxFileSize + " byte limit");
+        }
+
+        int chunkSize = request.getChunkSize() != null
+                ? Math.max(minChunkSize, Math.min(request.getChunkSize(), maxChunkSize))
+                : defaultChunkSize;
+        int chunkCount = (int) ((request.getTotalSize() + chunkSize - 1) / chunkSize);
+
+        // Chunks are kept in a local staging directory of the upload's own until commit
+        Path directory = caseDocumentService.newStagingFile();
+        Files.createDirectory(directory);
+
+        DocumentUpload upload = new DocumentUpload();
+        upload.setCaseEntity(caseEntity);
+        upload.setLawyer(lawyer);
+        upload.setOriginalName(request.getFileName());
+        upload.setStoredName(directory.getFileName().toString());
+        upload.setContentType(request.getContentType() != null ? request.getContentType() : "application/octet-stream");
+        upload.setTotalSize(request.getTotalSize());
+        upload.setChunkSize(chunkSize);
+        upload.setChunkCount(chunkCount);
+        upload.setStoragePath(directory.toString());
+        return toDto(uploadRepository.save(upload), List.of());
+    }
+
+    @Transactional(readOnly = true)
+    public DocumentUploadDto getUpload(UUID uploadId, UUID lawyerId) {
+        DocumentUpload upload = findUpload(uploadId, lawyerId);
+        return toDto(upload, chunkRepository.findChunkIndexes(uploadId));
+    }
+
+    /**
+     * Writes one chunk. No transaction is held while the body streams in; the chunk is
+     * put in place and recorded afterwards in a short one that shares the upload's row
+     * lock with other chunks but not with a commit. A chunk whose checksum does not match
+     * leaves any earlier copy of it as it was, and no chunk is taken once a commit has
+     * claimed the upload.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public DocumentUploadDto writeChunk(UUID uploadId, UUID lawyerId, int chunkIndex, String sha256,
+                                        InputStream body) throws IOException {
+        DocumentUpload upload = findUpload(uploadId, lawyerId);
+        if (chunkIndex < 0 || chunkIndex >= upload.getChunkCount()) {
+            throw new RuntimeException("Chunk index must be between 0 and " + (upload.getChunkCount() - 1));
+        }
+        if (sha256 == null || !sha256.matches("[0-9a-fA-F]{64}")) {
+            throw new RuntimeException("Chunk checksum must be a hex SHA-256");
+        }
+        if (upload.isCommitting()) {
+            throw new RuntimeException("Upload is being committed");
+        }
+
+        long offset = (long) chunkIndex * upload.getChunkSize();
+        int length = (int) Math.min(upload.getChunkSize(), upload.getTotalSize() - offset);
+        Path directory = Paths.get(upload.getStoragePath());
+        Path temp = directory.resolve(chunkIndex + "." + UUID.randomUUID() + ".part");
+        try {
+            String actual = write(temp, length, body);
+            if (!actual.equalsIgnoreCase(sha256)) {
+                throw new RuntimeException("Chunk checksum does not match");
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            transactionTemplate.executeWithoutResult(status -> {
+                boolean committing = uploadRepository.lockForChunk(uploadId)
+                        .orElseThrow(() -> new RuntimeException("Upload not found"));
+                if (committing) {
+                    throw new RuntimeException("Upload is being committed");
+                }
+                try {
+                    Files.move(temp, chunkFile(directory, chunkIndex),
+                            StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                chunkRepository.record(UUID.randomUUID(), uploadId, chunkIndex, length, actual);
+                uploadRepository.touch(uploadId, now);
+            });
+            DocumentUploadDto dto = toDto(upload, chunkRepository.findChunkIndexes(uploadId));
+            dto.setExpiresAt(now.plusNanos(sessionTtlMs * 1_000_000L));
+            return dto;
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Creates the document from the received chunks. The upload is claimed in one short
+     * transaction, its content stored with none open, and the document registered in
+     * another short one; the chunks are only deleted once that has committed, so a
+     * commit that fails at any point can be retried.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CaseDocumentDto commit(UUID uploadId, UUID lawyerId) throws IOException {
+        DocumentUpload upload = transactionTemplate.execute(status -> {
+            // Waits for chunks being put in place; any arriving later see the claim and are refused
+            DocumentUpload locked = lockUpload(uploadId, lawyerId);
+            if (locked.isCommitting()) {
+                throw new RuntimeException("Upload is already being committed");
+            }
+            long missing = locked.getChunkCount() - chunkRepository.countByUploadId(uploadId);
+            if (missing > 0) {
+                throw new RuntimeException("Upload is missing " + missing + " chunk(s)");
+            }
+            locked.setCommitting(true);
+            locked.setUpdatedAt(LocalDateTime.now());
+            return locked;
+        });
+
+        Path directory = Paths.get(upload.getStoragePath());
+        CaseDocumentDto dto;
+        CaseDocumentService.StagedContent staged = null;
+        try {
+            try (InputStream in = openChunks(directory, upload.getChunkCount())) {
+                staged = caseDocumentService.stage(in, upload.getTotalSize(), upload.getContentType(),
+                        upload.getCaseEntity(), upload.getOriginalName());
+            }
+            CaseDocumentService.StagedContent content = staged;
+            dto = transactionTemplate.execute(status -> {
+                DocumentUpload locked = lockUpload(uploadId, lawyerId);
+                CaseDocumentDto created;
+                try {
+                    created = caseDocumentService.register(locked.getCaseEntity(), locked.getLawyer(),
+                            locked.getOriginalName(), locked.getContentType(), content);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                chunkRepository.deleteByUploadId(uploadId);
+                uploadRepository.delete(locked);
+                return created;
+            });
+        } catch (IOException | RuntimeException ex) {
+            if (staged != null) {
+                caseDocumentService.discard(staged);
+            }
+            releaseCommit(uploadId);
+            if (ex instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+            throw ex;
+        }
+        deleteDirectory(directory);
+        return dto;
+    }
+
+    @Transactional
+    public void cancel(UUID uploadId, UUID lawyerId) throws IOException {
+        DocumentUpload upload = lockUpload(uploadId, lawyerId);
+        if (upload.isCommitting()) {
+            throw new RuntimeException("Upload is being committed");
+        }
+        remove(upload);
+    }
+
+    /**
+     * Removes uploads that have received nothing for longer than the session TTL,
+     * together with their chunks. An upload whose commit died with the process is
+     * removed the same way.
+     */
+    @Scheduled(initialDelayString = "${app.storage.upload.cleanup-ms:3600000}",
+               fixedDelayString = "${app.storage.upload.cleanup-ms:3600000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void expireStaleUploads() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(sessionTtlMs * 1_000_000L);
+        int removed = 0;
+        for (UUID uploadId : uploadRepository.findIdsUpdatedBefore(cutoff)) {
+            try {
+                Boolean expired = transactionTemplate.execute(status -> {
+                    // Re-checked under the lock: a chunk may have arrived since the scan
+                    DocumentUpload upload = uploadRepository.findByIdForUpdate(uploadId).orElse(null);
+                    if (upload == null || !upload.getUpdatedAt().isBefore(cutoff)) {
+                        return false;
+                    }
+                    remove(upload);
+                    return true;
+                });
+                if (Boolean.TRUE.equals(expired)) {
+                    removed++;
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Could not expire upload {}: {}", uploadId, ex.getMessage());
+            }
+        }
+        if (removed > 0) {
+            log.info("Expired {} stale document uploads", removed);
+        }
+    }
+
+    private void remove(DocumentUpload upload) {
+        chunkRepository.deleteByUploadId(upload.getId());
+        uploadRepository.delete(upload);
+        deleteDirectory(Paths.get(upload.getStoragePath()));
+    }
+
+    // Lets the client retry a commit that failed, with every chunk still in place
+    private void releaseCommit(UUID uploadId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> uploadRepository.releaseCommit(uploadId));
+        } catch (RuntimeException ex) {
+            log.warn("Could not release the commit claim on upload {}: {}", uploadId, ex.getMessage());
+        }
+    }
+
+    private static void deleteDirectory(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+        } catch (NoSuchFileException ex) {
+            // Already gone
+        } catch (IOException ex) {
+            log.warn("Could not delete upload directory {}: {}", directory, ex.getMessage());
+        }
+    }
+
+    private static Path chunkFile(Path directory, int chunkIndex) {
+        return directory.resolve(chunkIndex + ".chunk");
+    }
+
+    // The chunks in order, as one stream
+    private static InputStream openChunks(Path directory, int chunkCount) {
+        Enumeration<InputStream> chunks = new Enumeration<>() {
+            private int next;
+
+            @Override
+            public boolean hasMoreElements() {
+                return next < chunkCount;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                try {
+                    return Files.newInputStream(chunkFile(directory, next++));
+                } catch (NoSuchFileException ex) {
+                    throw new RuntimeException("Upload is missing chunk " + (next - 1));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+        };
+        return new SequenceInputStream(chunks);
+    }
+
+    private DocumentUpload findUpload(UUID uploadId, UUID lawyerId) {
+        DocumentUpload upload = uploadRepository.findById(uploadId)
+                .orElseThrow(() -> new RuntimeException("Upload not found"));
+        if (!upload.getLawyer().getId().equals(lawyerId)) {
+            throw new RuntimeException("Forbidden");
+        }
+        return upload;
+    }
+
+    private DocumentUpload lockUpload(UUID uploadId, UUID lawyerId) {
+        DocumentUpload upload = uploadRepository.findByIdForUpdate(uploadId)
+                .orElseThrow(() -> new RuntimeException("Upload not found"));
+        if (!upload.getLawyer().getId().equals(lawyerId)) {
+            throw new RuntimeException("Forbidden");
+        }
+        return upload;
+    }
+
+    // Copies exactly length bytes into a new file through a fixed buffer and returns their SHA-256
+    private static String write(Path file, int length, InputStream body) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[Math.min(COPY_BUFFER_BYTES, Math.max(length, 1))];
+        try (OutputStream out = Files.newOutputStream(file, StandardOpenOption.CREATE_NEW)) {
+            int remaining = length;
+            while (remaining > 0) {
+                int read = body.read(buffer, 0, Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    throw new RuntimeException("Chunk is shorter than " + length + " bytes");
+                }
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+                remaining -= read;
+            }
+        } catch (NoSuchFileException ex) {
+            throw new RuntimeException("Upload not found");
+        }
+        if (body.read() >= 0) {
+            throw new RuntimeException("Chunk is longer than " + length + " bytes");
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private DocumentUploadDto toDto(DocumentUpload upload, List<Integer> receivedChunks) {
+        return new DocumentUploadDto(upload.getId(), upload.getCaseEntity().getId(), upload.getOriginalName(),
+                upload.getTotalSize(), upload.getChunkSize(), upload.getChunkCount(), receivedChunks,
+                upload.getUpdatedAt().plusNanos(sessionTtlMs * 1_000_000L));
+    }
+}
@@ -0,0 +1,219 @@
+package com.legalease.service;
+
+import com.legalease.storage.DocumentContent;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Streams stored content into an HTTP response without holding it in memory. Honours a
+ * single byte range (with If-Range) and answers conditional GETs with 304. Content on
+ * local disk is handed to the container's sendfile when it offers one, or else goes
+ * through FileChannel.transferTo; remote content is fetched for just the requested
+ * range and copied through a small fixed buffer. Either way memory use does not depend
+ * on the size of the file.
+ *
+ * Requests for several ranges at once get the whole file, which HTTP allows and which
+ * resumable downloads and media seeking never ask for.
+ */
+@Component
+public class FileRangeWriter {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    private final boolean sendfile;
+
+    public FileRangeWriter(@Value("${app.storage.sendfile:true}") boolean sendfile) {
+        this.sendfile = sendfile;
+    }
+
+    /**
+     * Writes the content, or the requested part of it, as the response. The ETag must be
+     * a strong validator that changes whenever the content does. A content encoding is
+     * sent as Content-Encoding, with byte ranges counted in the encoded bytes as HTTP
+     * has it; pass null for content that goes out as it is.
+     */
+    public void write(HttpServletRequest request, HttpServletResponse response, DocumentContent content,
+                      String contentType, String contentEncoding, String fileName, String etag,
+                      long lastModified) throws IOException {
+        long length = content.getLength();
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+        if (contentEncoding != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+        }
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.inline().filename(fileName, StandardCharsets.UTF_8).build().toString());
+        response.setContentType(contentType);
+
+        long start = 0;
+        long end = length - 1;
+        HttpRange range = requestedRange(request, etag, lastModified);
+        if (range != null) {
+            if (!satisfiable(range, length)) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+        Path file = content.getLocalFile();
+        if (file == null) {
+            try (InputStream in = content.open(start, count)) {
+                copy(in, count, response.getOutputStream());
+            }
+            return;
+        }
+        if (sendfile && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // The container copies file to socket in the kernel once the servlet returns
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        transfer(file, start, count, response);
+    }
+
+    /**
+     * Whether the request's Accept-Encoding allows the given content coding. Without the
+     * header any coding is acceptable, but a client that sends none has usually not
+     * thought about it, so that counts as a no.
+     */
+    public static boolean acceptsEncoding(HttpServletRequest request, String coding) {
+        String header = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (header == null) {
+            return false;
+        }
+        Double exact = null;
+        Double any = null;
+        for (String entry : header.split(",")) {
+            String[] parts = entry.trim().split(";");
+            String name = parts[0].trim();
+            double q = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException ex) {
+                        q = 0;
+                    }
+                }
+            }
+            if (name.equalsIgnoreCase(coding) || name.equalsIgnoreCase("x-" + coding)) {
+                exact = q;
+            } else if (name.equals("*")) {
+                any = q;
+            }
+        }
+        Double q = exact != null ? exact : any;
+        return q != null && q > 0;
+    }
+
+    // The single range to serve, or null for the whole file
+    private HttpRange requestedRange(HttpServletRequest request, String etag, long lastModified) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null || !ifRangeMatches(request.getHeader(HttpHeaders.IF_RANGE), etag, lastModified)) {
+            return null;
+        }
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException ex) {
+            // A malformed Range header is ignored rather than rejected
+            return null;
+        }
+        return ranges.size() == 1 ? ranges.get(0) : null;
+    }
+
+    // If-Range names the representation the client already holds part of; on a mismatch it gets the whole file
+    private static boolean ifRangeMatches(String ifRange, String etag, long lastModified) {
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        if (ifRange.startsWith("W/")) {
+            return false;
+        }
+        try {
+            long date = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            // Last-Modified goes out with whole seconds only
+            return date == lastModified / 1000 * 1000;
+        } catch (DateTimeParseException ex) {
+            return false;
+        }
+    }
+
+    private static boolean satisfiable(HttpRange range, long length) {
+        try {
+            return length > 0 && range.getRangeStart(length) < length;
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    private static void copy(InputStream in, long count, OutputStream out) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_BYTES];
+        long remaining = count;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                throw new IOException("Content ended before the requested range was sent");
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+
+    private static void transfer(Path file, long start, long count, HttpServletResponse response) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = in.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    throw new IOException("File ended before the requested range was sent");
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+}
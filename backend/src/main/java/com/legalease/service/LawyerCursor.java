@@ -0,0 +1,56 @@
+package com.legalease.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque (sort value, id) position in a sorted lawyer listing. The sort it was
+ * issued for is encoded too, so a cursor cannot be replayed against another order.
+ */
+public final class LawyerCursor {
+
+    private final String sort;
+    private final String value;
+    private final UUID id;
+
+    private LawyerCursor(String sort, String value, UUID id) {
+        this.sort = sort;
+        this.value = value;
+        this.id = id;
+    }
+
+    public static LawyerCursor of(String sort, Object value, UUID id) {
+        return new LawyerCursor(sort, String.valueOf(value), id);
+    }
+
+    public static LawyerCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // The value sits between the first and last separator and may itself contain one
+            int first = raw.indexOf('|');
+            int last = raw.lastIndexOf('|');
+            return new LawyerCursor(raw.substring(0, first), raw.substring(first + 1, last),
+                    UUID.fromString(raw.substring(last + 1)));
+        } catch (RuntimeException ex) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = sort + "|" + value + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+}
@@ -0,0 +1,150 @@
+package com.legalease.service;
+
+import com.legalease.dto.LawyerSearchDto;
+import com.legalease.event.LawyerChangedEvent;
+import com.legalease.repository.LawyerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps a LawyerSearchIndex in step with the database so the public lawyer search
+ * is answered without a round trip. Built once the application is ready from the
+ * LawyerSearchDto projection (a single select), updated after each committed lawyer
+ * change and rebuilt periodically by LawyerDirectoryRefresh to pick up anything
+ * changed outside LawyerService (such as a user renaming).
+ *
+ * Loading from the database and applying what was loaded happen together under a
+ * refresh lock, so a rebuild's snapshot can never overwrite a change applied while
+ * it was being read, and two changes cannot be applied in the opposite order to
+ * their reads. Searches only wait for the apply: a rebuild fills a new index off
+ * to the side and swaps it in.
+ */
+@Slf4j
+@Component
+public class LawyerDirectoryIndex {
+
+    private final LawyerRepository lawyerRepository;
+    private final double minSimilarity;
+    private final double verifiedBoost;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    private final Object refreshLock = new Object();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private LawyerSearchIndex index;
+    private volatile boolean ready;
+
+    public LawyerDirectoryIndex(LawyerRepository lawyerRepository,
+                                @Value("${app.lawyers.directory.min-similarity:0.5}") double minSimilarity,
+                                @Value("${app.lawyers.directory.verified-boost:1.25}") double verifiedBoost,
+                                @Value("${app.lawyers.directory.default-limit:50}") int defaultLimit,
+                                @Value("${app.lawyers.directory.max-limit:200}") int maxLimit) {
+        this.lawyerRepository = lawyerRepository;
+        this.minSimilarity = minSimilarity;
+        this.verifiedBoost = verifiedBoost;
+        this.index = new LawyerSearchIndex(minSimilarity, verifiedBoost);
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        rebuild();
+    }
+
+    /**
+     * Reloads every lawyer and returns whether anything differed from what the index held.
+     */
+    public boolean rebuild() {
+        synchronized (refreshLock) {
+            List<LawyerSearchDto> lawyers = lawyerRepository.findAllSearchDtos();
+            LawyerSearchIndex rebuilt = new LawyerSearchIndex(minSimilarity, verifiedBoost);
+            lawyers.forEach(rebuilt::put);
+            boolean changed;
+            lock.writeLock().lock();
+            try {
+                changed = !sameContents(index, rebuilt, lawyers);
+                index = rebuilt;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Lawyer directory index holds {} lawyers", lawyers.size());
+            return changed;
+        }
+    }
+
+    // Before LawyerDirectoryVersion moves on, so a new ETag never labels the old contents
+    @Order(0)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLawyerChanged(LawyerChangedEvent event) {
+        synchronized (refreshLock) {
+            LawyerSearchDto lawyer = lawyerRepository.findSearchDtoById(event.getLawyerId()).orElse(null);
+            lock.writeLock().lock();
+            try {
+                if (lawyer != null) {
+                    index.put(lawyer);
+                } else {
+                    index.remove(event.getLawyerId());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public List<LawyerSearchDto> all() {
+        lock.readLock().lock();
+        try {
+            return index.all();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best matches for the query, most relevant first, limit defaulting to
+     * app.lawyers.directory.default-limit and capped at app.lawyers.directory.max-limit.
+     * A blank query lists everyone by name, only the first limit of them when a limit
+     * is given.
+     */
+    public List<LawyerSearchDto> search(String query, Integer limit) {
+        boolean limited = limit != null && limit > 0;
+        int k = limited ? Math.min(limit, maxLimit) : defaultLimit;
+        lock.readLock().lock();
+        try {
+            if (LawyerSearchIndex.normalize(query).isEmpty()) {
+                return limited ? index.first(k) : index.all();
+            }
+            return index.search(query, k);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean sameContents(LawyerSearchIndex current, LawyerSearchIndex rebuilt, List<LawyerSearchDto> lawyers) {
+        if (current.size() != rebuilt.size()) {
+            return false;
+        }
+        for (LawyerSearchDto lawyer : lawyers) {
+            if (!lawyer.equals(current.get(lawyer.getId()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
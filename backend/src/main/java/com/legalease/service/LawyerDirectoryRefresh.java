@@ -0,0 +1,33 @@
+package com.legalease.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodic full reload of the in-memory lawyer indexes, picking up changes made
+ * outside LawyerService (such as a user renaming) that publish no LawyerChangedEvent.
+ * The directory version only moves on after every index has reloaded, and only when
+ * one of them found something different, so cached responses are revalidated once
+ * the new contents are served and not on every reload.
+ */
+@Component
+@RequiredArgsConstructor
+public class LawyerDirectoryRefresh {
+
+    private final LawyerDirectoryIndex directoryIndex;
+    private final LawyerSuggestIndex suggestIndex;
+    private final LawyerGeoIndex geoIndex;
+    private final LawyerDirectoryVersion directoryVersion;
+
+    @Scheduled(initialDelayString = "${app.lawyers.directory.rebuild-ms:600000}",
+               fixedDelayString = "${app.lawyers.directory.rebuild-ms:600000}")
+    public void refresh() {
+        boolean changed = directoryIndex.rebuild();
+        changed |= suggestIndex.rebuild();
+        changed |= geoIndex.rebuild();
+        if (changed) {
+            directoryVersion.advance();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.legalease.service;
+
+import com.legalease.event.LawyerChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Version of the public lawyer directory, used as the validator for HTTP caching of
+ * the /api/lawyers endpoints. Every committed lawyer change (a LawyerService mutation
+ * or a lawyer registering) moves it forward, as does a periodic reload that found
+ * changes made elsewhere.
+ *
+ * The bump runs after the in-memory indexes have applied the same change, so a
+ * response is never tagged with a version newer than its body. The tag includes the
+ * startup time, so versions from before a restart are never mistaken for current ones.
+ * Last-Modified only has one second resolution, so the ETag is the validator to rely on;
+ * it takes precedence whenever a client sends both.
+ */
+@Component
+public class LawyerDirectoryVersion {
+
+    private final long epoch = System.currentTimeMillis();
+    private final CacheControl cacheControl;
+    private volatile State state = new State(0, epoch);
+
+    public LawyerDirectoryVersion(@Value("${app.lawyers.http-cache.max-age-seconds:60}") long maxAgeSeconds,
+                                  @Value("${app.lawyers.http-cache.stale-while-revalidate-seconds:300}") long staleSeconds) {
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds))
+                .cachePublic()
+                .staleWhileRevalidate(Duration.ofSeconds(staleSeconds));
+    }
+
+    // Shared caches may keep a directory response for max-age and then revalidate it with the ETag
+    public CacheControl getCacheControl() {
+        return cacheControl;
+    }
+
+    /**
+     * The current version as one consistent pair; read it before building a response
+     * so the body is at least as new as its tag.
+     */
+    public State current() {
+        return state;
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLawyerChanged(LawyerChangedEvent event) {
+        advance();
+    }
+
+    public synchronized void advance() {
+        state = new State(state.version + 1, System.currentTimeMillis());
+    }
+
+    public final class State {
+        private final long version;
+        private final String etag;
+        private final long lastModified;
+
+        private State(long version, long lastModified) {
+            this.version = version;
+            this.etag = "\"lawyers-" + Long.toString(epoch, 36) + "-" + version + "\"";
+            this.lastModified = lastModified;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
+}
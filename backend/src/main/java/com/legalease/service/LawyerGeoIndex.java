@@ -0,0 +1,248 @@
+package com.legalease.service;
+
+import com.legalease.dto.LawyerDistanceDto;
+import com.legalease.dto.LawyerSearchDto;
+import com.legalease.event.LawyerChangedEvent;
+import com.legalease.repository.LawyerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Uniform latitude/longitude grid over lawyer office locations for "lawyers near me".
+ * A radius search visits only the cells overlapping the circle's bounding box
+ * (wrapping at the antimeridian, every longitude near the poles), computes exact
+ * great-circle distances for the lawyers in them and keeps the nearest ones in a
+ * bounded heap. Kept in step with lawyer changes the same way as LawyerDirectoryIndex,
+ * loading and applying under a refresh lock and swapping in rebuilt maps.
+ */
+@Slf4j
+@Component
+public class LawyerGeoIndex {
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+    static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private final LawyerRepository lawyerRepository;
+    private final double cellDegrees;
+    private final int latCells;
+    private final int lonCells;
+    private final double defaultRadiusKm;
+    private final double maxRadiusKm;
+
+    private final Object refreshLock = new Object();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<UUID, LawyerSearchDto> entries = new HashMap<>();
+    private Map<Long, Set<UUID>> cells = new HashMap<>();
+    private volatile boolean ready;
+
+    public LawyerGeoIndex(LawyerRepository lawyerRepository,
+                          @Value("${app.lawyers.geo.cell-degrees:0.25}") double cellDegrees,
+                          @Value("${app.lawyers.geo.default-radius-km:25}") double defaultRadiusKm,
+                          @Value("${app.lawyers.geo.max-radius-km:500}") double maxRadiusKm) {
+        this.lawyerRepository = lawyerRepository;
+        this.cellDegrees = cellDegrees;
+        this.latCells = (int) Math.ceil(180 / cellDegrees);
+        this.lonCells = (int) Math.ceil(360 / cellDegrees);
+        this.defaultRadiusKm = defaultRadiusKm;
+        this.maxRadiusKm = maxRadiusKm;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public double radiusOrDefault(Double radiusKm) {
+        return radiusKm != null && radiusKm > 0 ? Math.min(radiusKm, maxRadiusKm) : defaultRadiusKm;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        rebuild();
+    }
+
+    /**
+     * Reloads every lawyer and returns whether any located lawyer differed from what
+     * the index held.
+     */
+    public boolean rebuild() {
+        synchronized (refreshLock) {
+            List<LawyerSearchDto> lawyers = lawyerRepository.findAllSearchDtos();
+            Map<UUID, LawyerSearchDto> rebuiltEntries = new HashMap<>();
+            Map<Long, Set<UUID>> rebuiltCells = new HashMap<>();
+            lawyers.forEach(lawyer -> put(rebuiltEntries, rebuiltCells, lawyer));
+            boolean changed;
+            lock.writeLock().lock();
+            try {
+                changed = !entries.equals(rebuiltEntries);
+                entries = rebuiltEntries;
+                cells = rebuiltCells;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Lawyer geo index holds {} located lawyers", rebuiltEntries.size());
+            return changed;
+        }
+    }
+
+    // Before LawyerDirectoryVersion moves on, so a new ETag never labels the old contents
+    @Order(0)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLawyerChanged(LawyerChangedEvent event) {
+        synchronized (refreshLock) {
+            LawyerSearchDto lawyer = lawyerRepository.findSearchDtoById(event.getLawyerId()).orElse(null);
+            lock.writeLock().lock();
+            try {
+                remove(event.getLawyerId());
+                if (lawyer != null) {
+                    put(entries, cells, lawyer);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Up to limit lawyers within radiusKm of the point, nearest first, ties by id.
+     */
+    public List<LawyerDistanceDto> nearby(double latitude, double longitude, double radiusKm, int limit) {
+        Comparator<LawyerDistanceDto> farthestFirst = Comparator.comparingDouble(LawyerDistanceDto::getDistanceKm)
+                .thenComparing(d -> d.getLawyer().getId())
+                .reversed();
+        PriorityQueue<LawyerDistanceDto> nearest;
+
+        lock.readLock().lock();
+        try {
+            // Never sized past the located lawyers, however large a limit the caller passes
+            nearest = new PriorityQueue<>(Math.max(1, Math.min(limit, entries.size())), farthestFirst);
+            for (long cell : cellsAround(latitude, longitude, radiusKm)) {
+                Set<UUID> ids = cells.get(cell);
+                if (ids == null) {
+                    continue;
+                }
+                for (UUID id : ids) {
+                    LawyerSearchDto lawyer = entries.get(id);
+                    double distance = distanceKm(latitude, longitude, lawyer.getLatitude(), lawyer.getLongitude());
+                    if (distance > radiusKm) {
+                        continue;
+                    }
+                    LawyerDistanceDto hit = new LawyerDistanceDto(lawyer, distance);
+                    if (nearest.size() < limit) {
+                        nearest.add(hit);
+                    } else if (limit > 0 && farthestFirst.compare(hit, nearest.peek()) > 0) {
+                        nearest.poll();
+                        nearest.add(hit);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<LawyerDistanceDto> results = new ArrayList<>(nearest.size());
+        while (!nearest.isEmpty()) {
+            LawyerDistanceDto hit = nearest.poll();
+            results.add(new LawyerDistanceDto(LawyerSearchIndex.copy(hit.getLawyer()), hit.getDistanceKm()));
+        }
+        Collections.reverse(results);
+        return results;
+    }
+
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Half the longitude span of a radius around a point, or 180 or more when the
+     * circle reaches a pole and so covers every longitude.
+     */
+    static double longitudeSpan(double latitude, double radiusKm) {
+        double latSpan = radiusKm / KM_PER_DEGREE;
+        if (Math.abs(latitude) + latSpan >= 90) {
+            return 180;
+        }
+        double widestLatitude = Math.toRadians(Math.abs(latitude) + latSpan);
+        return latSpan / Math.cos(widestLatitude);
+    }
+
+    private void put(Map<UUID, LawyerSearchDto> entries, Map<Long, Set<UUID>> cells, LawyerSearchDto lawyer) {
+        if (lawyer.getLatitude() == null || lawyer.getLongitude() == null) {
+            return;
+        }
+        entries.put(lawyer.getId(), lawyer);
+        cells.computeIfAbsent(cellOf(latIndex(lawyer.getLatitude()), lonIndex(lawyer.getLongitude())),
+                c -> new HashSet<>()).add(lawyer.getId());
+    }
+
+    private void remove(UUID id) {
+        LawyerSearchDto lawyer = entries.remove(id);
+        if (lawyer == null) {
+            return;
+        }
+        long cell = cellOf(latIndex(lawyer.getLatitude()), lonIndex(lawyer.getLongitude()));
+        Set<UUID> ids = cells.get(cell);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            cells.remove(cell);
+        }
+    }
+
+    private List<Long> cellsAround(double latitude, double longitude, double radiusKm) {
+        double latSpan = radiusKm / KM_PER_DEGREE;
+        double lonSpan = longitudeSpan(latitude, radiusKm);
+        int latFrom = latIndex(latitude - latSpan);
+        int latTo = latIndex(latitude + latSpan);
+        int lonFrom;
+        int lonCount;
+        if (lonSpan >= 180) {
+            lonFrom = 0;
+            lonCount = lonCells;
+        } else {
+            lonFrom = (int) Math.floor((longitude - lonSpan + 180) / cellDegrees);
+            lonCount = Math.min(lonCells, (int) Math.floor((longitude + lonSpan + 180) / cellDegrees) - lonFrom + 1);
+        }
+
+        List<Long> around = new ArrayList<>((latTo - latFrom + 1) * lonCount);
+        for (int lat = latFrom; lat <= latTo; lat++) {
+            for (int i = 0; i < lonCount; i++) {
+                around.add(cellOf(lat, Math.floorMod(lonFrom + i, lonCells)));
+            }
+        }
+        return around;
+    }
+
+    private int latIndex(double latitude) {
+        return Math.max(0, Math.min(latCells - 1, (int) Math.floor((latitude + 90) / cellDegrees)));
+    }
+
+    private int lonIndex(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), lonCells);
+    }
+
+    private long cellOf(int latIndex, int lonIndex) {
+        return (long) latIndex * lonCells + lonIndex;
+    }
+}
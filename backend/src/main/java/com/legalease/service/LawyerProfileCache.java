@@ -0,0 +1,80 @@
+package com.legalease.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.legalease.dto.LawyerSearchDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Lawyer profiles by id for the public profile page, bounded by an estimate of the
+ * bytes they hold rather than by entry count. Values are detached LawyerSearchDto
+ * projections, never entities, so one instance can be handed to any number of
+ * threads; callers must treat them as read-only.
+ *
+ * LawyerService evicts a lawyer whenever it changes one. Hit, miss and eviction
+ * counts are published as the cache.* meters tagged cache=lawyerProfiles.
+ */
+@Component
+public class LawyerProfileCache {
+
+    // Object headers, the UUID, BigDecimal and boxed fields of one cached profile
+    private static final int FIXED_ENTRY_BYTES = 256;
+
+    private final Cache<UUID, LawyerSearchDto> cache;
+
+    public LawyerProfileCache(ObjectProvider<MeterRegistry> meterRegistry,
+                              @Value("${app.lawyers.profile-cache.max-weight-bytes:16777216}") long maxWeightBytes,
+                              @Value("${app.lawyers.profile-cache.expire-after-write-ms:3600000}") long expireAfterWriteMs) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((UUID id, LawyerSearchDto profile) -> weigh(profile))
+                .expireAfterWrite(Duration.ofMillis(expireAfterWriteMs))
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, "lawyerProfiles"));
+    }
+
+    /**
+     * The cached profile, loading it on a miss. Returns null when the loader finds
+     * nothing; misses are not cached, so a lawyer created later is seen at once.
+     */
+    public LawyerSearchDto get(UUID id, Function<UUID, LawyerSearchDto> loader) {
+        return cache.get(id, loader);
+    }
+
+    /**
+     * Drops the lawyer now and again once the current transaction commits, so a read
+     * that loaded the old row while the change was in flight cannot outlive it.
+     */
+    public void evict(UUID id) {
+        cache.invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(id);
+                }
+            });
+        }
+    }
+
+    private static int weigh(LawyerSearchDto profile) {
+        return FIXED_ENTRY_BYTES + 2 * (length(profile.getName()) + length(profile.getEmail())
+                + length(profile.getSpecialization()) + length(profile.getExperience())
+                + length(profile.getPhone()) + length(profile.getAddress()));
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
@@ -0,0 +1,110 @@
+package com.legalease.service;
+
+import com.legalease.dto.LawyerRecommendationDto;
+import com.legalease.dto.LawyerSearchDto;
+import com.legalease.entity.CaseType;
+import com.legalease.repository.LawyerRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Suggests lawyers for a new case request so clients are steered away from lawyers
+ * who are already swamped. Each lawyer is scored on whether their specialization
+ * fits the case type, how cheap their hourly rate is relative to the others, and
+ * how light their current workload is (open cases plus pending requests, read from
+ * LawyerWorkloadTable). Everything comes from memory once the directory index is
+ * ready; no COUNT query runs per request.
+ */
+@Service
+public class LawyerRecommendationService {
+
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 50;
+
+    // Words in a normalized specialization that mark it as covering the case type
+    private static final Map<CaseType, List<String>> KEYWORDS = new EnumMap<>(CaseType.class);
+
+    static {
+        KEYWORDS.put(CaseType.CRIMINAL, List.of("criminal", "defense", "defence"));
+        KEYWORDS.put(CaseType.CIVIL, List.of("civil", "litigation"));
+        KEYWORDS.put(CaseType.FAMILY, List.of("family", "divorce", "custody"));
+        KEYWORDS.put(CaseType.CORPORATE, List.of("corporate", "business", "commercial"));
+        KEYWORDS.put(CaseType.REAL_ESTATE, List.of("real estate", "property", "land"));
+        KEYWORDS.put(CaseType.PERSONAL_INJURY, List.of("injury", "accident"));
+        KEYWORDS.put(CaseType.EMPLOYMENT, List.of("employment", "labor", "labour"));
+        KEYWORDS.put(CaseType.IMMIGRATION, List.of("immigration", "visa"));
+        KEYWORDS.put(CaseType.TAX, List.of("tax"));
+        KEYWORDS.put(CaseType.INTELLECTUAL_PROPERTY, List.of("intellectual", "patent", "trademark", "copyright"));
+        KEYWORDS.put(CaseType.OTHER, List.of());
+    }
+
+    private final LawyerDirectoryIndex directoryIndex;
+    private final LawyerRepository lawyerRepository;
+    private final LawyerWorkloadTable workloadTable;
+    private final double matchWeight;
+    private final double rateWeight;
+    private final double loadWeight;
+
+    public LawyerRecommendationService(LawyerDirectoryIndex directoryIndex,
+                                       LawyerRepository lawyerRepository,
+                                       LawyerWorkloadTable workloadTable,
+                                       @Value("${app.lawyers.recommendation.match-weight:0.5}") double matchWeight,
+                                       @Value("${app.lawyers.recommendation.rate-weight:0.2}") double rateWeight,
+                                       @Value("${app.lawyers.recommendation.load-weight:0.3}") double loadWeight) {
+        this.directoryIndex = directoryIndex;
+        this.lawyerRepository = lawyerRepository;
+        this.workloadTable = workloadTable;
+        this.matchWeight = matchWeight;
+        this.rateWeight = rateWeight;
+        this.loadWeight = loadWeight;
+    }
+
+    public List<LawyerRecommendationDto> recommend(CaseType caseType, Integer limit) {
+        int k = limit != null && limit > 0 ? Math.min(limit, MAX_LIMIT) : DEFAULT_LIMIT;
+        List<LawyerSearchDto> lawyers = directoryIndex.isReady()
+                ? directoryIndex.all()
+                : lawyerRepository.findAllSearchDtos();
+        if (lawyers.isEmpty()) {
+            return List.of();
+        }
+
+        BigDecimal minRate = null;
+        BigDecimal maxRate = null;
+        for (LawyerSearchDto lawyer : lawyers) {
+            BigDecimal rate = lawyer.getHourlyRate();
+            if (rate != null) {
+                minRate = minRate == null || rate.compareTo(minRate) < 0 ? rate : minRate;
+                maxRate = maxRate == null || rate.compareTo(maxRate) > 0 ? rate : maxRate;
+            }
+        }
+
+        List<String> keywords = KEYWORDS.getOrDefault(caseType, List.of());
+        double low = minRate != null ? minRate.doubleValue() : 0;
+        double spread = maxRate != null ? maxRate.doubleValue() - low : 0;
+        return lawyers.stream()
+                .map(lawyer -> score(lawyer, keywords, low, spread))
+                .sorted(Comparator.comparing(LawyerRecommendationDto::getScore).reversed())
+                .limit(k)
+                .toList();
+    }
+
+    private LawyerRecommendationDto score(LawyerSearchDto lawyer, List<String> keywords, double lowRate, double rateSpread) {
+        String specialization = LawyerSearchIndex.normalize(lawyer.getSpecialization());
+        boolean match = keywords.stream().anyMatch(specialization::contains);
+        // Cheapest lawyer scores 1, dearest 0; a missing rate counts as the dearest
+        double rate = lawyer.getHourlyRate() == null ? 0
+                : rateSpread > 0 ? 1 - (lawyer.getHourlyRate().doubleValue() - lowRate) / rateSpread : 1;
+        int openCases = workloadTable.openCases(lawyer.getId());
+        int pendingRequests = workloadTable.pendingRequests(lawyer.getId());
+        double load = 1.0 / (1 + openCases + pendingRequests);
+
+        double score = matchWeight * (match ? 1 : 0) + rateWeight * rate + loadWeight * load;
+        return new LawyerRecommendationDto(lawyer, match, openCases, pendingRequests, score);
+    }
+}
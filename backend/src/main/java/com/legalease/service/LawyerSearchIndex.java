@@ -0,0 +1,359 @@
+package com.legalease.service;
+
+import com.legalease.dto.LawyerSearchDto;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Trigram inverted index over lawyer names and specializations with BM25 ranking.
+ * Not thread safe; LawyerDirectoryIndex guards it with a read/write lock.
+ *
+ * Trigrams are taken per word with pg_trgm style padding, so "smoth" still finds
+ * "Smith". A lawyer matches when the query is a substring of its text or when at
+ * least minSimilarity of the query's trigrams occur in it. Matches are scored with
+ * BM25 per field (each field saturated and length-normalized on its own, then
+ * summed), multiplied by verifiedBoost for verified lawyers, and only the best
+ * limit hits are kept in a bounded min-heap rather than sorting every match.
+ *
+ * A query touches only the postings of its own trigrams and the lawyers in them;
+ * scores accumulate in per-thread arrays that are cleared slot by slot afterwards,
+ * so no query allocates or scans anything sized by the whole directory (except the
+ * substring scan needed for one and two character queries). Its cost therefore
+ * follows how common its trigrams are: a word shared by a tenth of the directory,
+ * such as a specialization, means scoring a tenth of it. LawyerRankingBenchmark
+ * puts p99 at a few milliseconds for 10k lawyers and about 20 ms for 100k, so this
+ * saves the database round trip rather than answering in microseconds.
+ */
+public class LawyerSearchIndex {
+
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final double minSimilarity;
+    private final double verifiedBoost;
+
+    // Entries live in numbered slots so postings and per-query scores can be plain arrays
+    private final List<Entry> slots = new ArrayList<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final Map<UUID, Integer> slotOf = new HashMap<>();
+    private final Map<String, Posting> postings = new HashMap<>();
+    private long totalNameLength;
+    private long totalSpecializationLength;
+
+    public LawyerSearchIndex(double minSimilarity, double verifiedBoost) {
+        this.minSimilarity = minSimilarity;
+        this.verifiedBoost = verifiedBoost;
+    }
+
+    public int size() {
+        return slotOf.size();
+    }
+
+    public void clear() {
+        slots.clear();
+        freeSlots.clear();
+        slotOf.clear();
+        postings.clear();
+        totalNameLength = 0;
+        totalSpecializationLength = 0;
+    }
+
+    public void put(LawyerSearchDto dto) {
+        remove(dto.getId());
+        String name = normalize(dto.getName());
+        String specialization = normalize(dto.getSpecialization());
+        Map<String, Integer> nameTf = trigramCounts(name);
+        Map<String, Integer> specializationTf = trigramCounts(specialization);
+        Entry entry = new Entry(dto, name + " " + specialization, total(nameTf), total(specializationTf));
+
+        int slot;
+        if (freeSlots.isEmpty()) {
+            slot = slots.size();
+            slots.add(entry);
+        } else {
+            slot = freeSlots.pop();
+            slots.set(slot, entry);
+        }
+        slotOf.put(dto.getId(), slot);
+        totalNameLength += entry.nameLength;
+        totalSpecializationLength += entry.specializationLength;
+
+        Set<String> grams = new HashSet<>(nameTf.keySet());
+        grams.addAll(specializationTf.keySet());
+        entry.grams = grams.toArray(new String[0]);
+        for (String gram : entry.grams) {
+            postings.computeIfAbsent(gram, g -> new Posting())
+                    .add(slot, nameTf.getOrDefault(gram, 0), specializationTf.getOrDefault(gram, 0));
+        }
+    }
+
+    public void remove(UUID id) {
+        Integer slot = slotOf.remove(id);
+        if (slot == null) {
+            return;
+        }
+        Entry entry = slots.set(slot, null);
+        freeSlots.push(slot);
+        totalNameLength -= entry.nameLength;
+        totalSpecializationLength -= entry.specializationLength;
+        for (String gram : entry.grams) {
+            Posting posting = postings.get(gram);
+            if (posting != null && posting.remove(slot) && posting.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    LawyerSearchDto get(UUID id) {
+        Integer slot = slotOf.get(id);
+        return slot != null ? slots.get(slot).dto : null;
+    }
+
+    public List<LawyerSearchDto> all() {
+        return slots.stream()
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(e -> e.text))
+                .map(e -> copy(e.dto))
+                .toList();
+    }
+
+    // The first limit lawyers in the order of all(), without sorting the rest
+    public List<LawyerSearchDto> first(int limit) {
+        Comparator<Entry> lastFirst = Comparator.comparing((Entry e) -> e.text).reversed();
+        PriorityQueue<Entry> first = new PriorityQueue<>(Math.max(1, Math.min(limit, slotOf.size())), lastFirst);
+        for (Entry entry : slots) {
+            if (entry == null) {
+                continue;
+            }
+            if (first.size() < limit) {
+                first.add(entry);
+            } else if (limit > 0 && lastFirst.compare(entry, first.peek()) > 0) {
+                first.poll();
+                first.add(entry);
+            }
+        }
+        List<LawyerSearchDto> results = new ArrayList<>(first.size());
+        while (!first.isEmpty()) {
+            results.add(copy(first.poll().dto));
+        }
+        Collections.reverse(results);
+        return results;
+    }
+
+    /**
+     * The best limit matches, most relevant first; a blank query gives the first
+     * limit of all().
+     */
+    public List<LawyerSearchDto> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return first(limit);
+        }
+        Set<String> queryGrams = trigrams(normalized);
+        int documents = slotOf.size();
+        double averageName = documents > 0 ? (double) totalNameLength / documents : 0;
+        double averageSpecialization = documents > 0 ? (double) totalSpecializationLength / documents : 0;
+
+        Scratch scratch = SCRATCH.get().fit(slots.size());
+        double[] scores = scratch.scores;
+        int[] shared = scratch.shared;
+        try {
+            // Accumulate shared trigram counts and BM25 in one pass over the postings
+            for (String gram : queryGrams) {
+                Posting posting = postings.get(gram);
+                if (posting == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documents - posting.size + 0.5) / (posting.size + 0.5));
+                for (int i = 0; i < posting.size; i++) {
+                    int slot = posting.slots[i];
+                    Entry entry = slots.get(slot);
+                    if (shared[slot]++ == 0) {
+                        scratch.touched[scratch.touchedCount++] = slot;
+                    }
+                    scores[slot] += idf * (saturate(posting.nameTf[i], entry.nameLength, averageName)
+                            + saturate(posting.specializationTf[i], entry.specializationLength, averageSpecialization));
+                }
+            }
+            // Queries under three characters have no inner trigram, so substring hits need a full scan
+            boolean scanAll = normalized.length() < 3;
+            int needed = (int) Math.ceil(minSimilarity * queryGrams.size());
+            int candidates = scanAll ? slots.size() : scratch.touchedCount;
+
+            // Min-heap of slots holding the best limit hits, worst at the head
+            Comparator<Integer> worstFirst = Comparator.comparingDouble((Integer slot) -> scores[slot])
+                    .thenComparing((Integer slot) -> slots.get(slot).text, Comparator.reverseOrder());
+            // Never sized past the candidates, however large a limit the caller passes
+            PriorityQueue<Integer> top = new PriorityQueue<>(Math.max(1, Math.min(limit, candidates)), worstFirst);
+            for (int c = 0; c < candidates; c++) {
+                int slot = scanAll ? c : scratch.touched[c];
+                Entry entry = slots.get(slot);
+                if (entry == null) {
+                    continue;
+                }
+                if (shared[slot] < needed && !entry.text.contains(normalized)) {
+                    continue;
+                }
+                if (Boolean.TRUE.equals(entry.dto.getVerified())) {
+                    scores[slot] *= verifiedBoost;
+                }
+                if (top.size() < limit) {
+                    top.add(slot);
+                } else if (limit > 0 && worstFirst.compare(slot, top.peek()) > 0) {
+                    top.poll();
+                    top.add(slot);
+                }
+            }
+
+            List<LawyerSearchDto> results = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                results.add(copy(slots.get(top.poll()).dto));
+            }
+            Collections.reverse(results);
+            return results;
+        } finally {
+            scratch.clear();
+        }
+    }
+
+    private static double saturate(int tf, int length, double averageLength) {
+        if (tf == 0) {
+            return 0;
+        }
+        double norm = averageLength > 0 ? length / averageLength : 1;
+        return tf * (K1 + 1) / (tf + K1 * (1 - B + B * norm));
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    static Set<String> trigrams(String normalized) {
+        return new LinkedHashSet<>(trigramCounts(normalized).keySet());
+    }
+
+    private static Map<String, Integer> trigramCounts(String normalized) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String word : normalized.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                counts.merge(padded.substring(i, i + 3), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    private static int total(Map<String, Integer> counts) {
+        return counts.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    static LawyerSearchDto copy(LawyerSearchDto dto) {
+        return new LawyerSearchDto(dto.getId(), dto.getName(), dto.getEmail(), dto.getSpecialization(),
+                dto.getExperience(), dto.getVerified(), dto.getHourlyRate(), dto.getPhone(), dto.getAddress(),
+                dto.getExperienceYears(), dto.getLatitude(), dto.getLongitude(), dto.getAverageRating(),
+                dto.getReviewCount());
+    }
+
+    private static final class Entry {
+        private final LawyerSearchDto dto;
+        private final String text;
+        private final int nameLength;
+        private final int specializationLength;
+        private String[] grams;
+
+        private Entry(LawyerSearchDto dto, String text, int nameLength, int specializationLength) {
+            this.dto = dto;
+            this.text = text;
+            this.nameLength = nameLength;
+            this.specializationLength = specializationLength;
+        }
+    }
+
+    // Per-thread score accumulators, zero everywhere between queries
+    private static final class Scratch {
+        private double[] scores = new double[0];
+        private int[] shared = new int[0];
+        private int[] touched = new int[0];
+        private int touchedCount;
+
+        private Scratch fit(int slots) {
+            if (scores.length < slots) {
+                int capacity = Math.max(slots, scores.length * 2);
+                scores = new double[capacity];
+                shared = new int[capacity];
+                touched = new int[capacity];
+            }
+            return this;
+        }
+
+        private void clear() {
+            for (int i = 0; i < touchedCount; i++) {
+                scores[touched[i]] = 0;
+                shared[touched[i]] = 0;
+            }
+            touchedCount = 0;
+        }
+    }
+
+    // Slots containing one trigram, with its count in each field
+    private static final class Posting {
+        private int[] slots = new int[4];
+        private int[] nameTf = new int[4];
+        private int[] specializationTf = new int[4];
+        private int size;
+
+        private void add(int slot, int name, int specialization) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                nameTf = Arrays.copyOf(nameTf, size * 2);
+                specializationTf = Arrays.copyOf(specializationTf, size * 2);
+            }
+            slots[size] = slot;
+            nameTf[size] = name;
+            specializationTf[size] = specialization;
+            size++;
+        }
+
+        // Order within a posting does not matter, so the last element fills the gap
+        private boolean remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    size--;
+                    slots[i] = slots[size];
+                    nameTf[i] = nameTf[size];
+                    specializationTf[i] = specializationTf[size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -1,18 +1,30 @@
 
 package com.legalease.service;
 
+import com.legalease.dto.LawyerDistanceDto;
+import com.legalease.dto.LawyerNearbyPageDto;
+import com.legalease.dto.LawyerPageDto;
 import com.legalease.dto.LawyerRequest;
+import com.legalease.dto.LawyerSearchCriteria;
 import com.legalease.dto.LawyerSearchDto;
+import com.legalease.dto.LawyerSuggestionDto;
 import com.legalease.entity.Lawyer;
 import com.legalease.entity.User;
 import com.legalease.entity.UserRole;
+import com.legalease.event.LawyerChangedEvent;
 import com.legalease.repository.LawyerRepository;
+import com.legalease.repository.LawyerRepositoryCustom;
 import com.legalease.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -20,17 +32,46 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class LawyerService {
     
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    // Nearby pages rank everything before them, so the offset a request may reach is bounded
+    private static final int MAX_NEARBY_OFFSET = 1000;
+    
     private final LawyerRepository lawyerRepository;
     private final UserRepository userRepository;
+    private final LawyerDirectoryIndex directoryIndex;
+    private final LawyerSuggestIndex suggestIndex;
+    private final LawyerProfileCache profileCache;
+    private final LawyerGeoIndex geoIndex;
+    private final ApplicationEventPublisher eventPublisher;
     
     public List<Lawyer> getAllLawyers() {
         return lawyerRepository.findAll();
     }
 
     public List<Lawyer> searchLawyers(String q) {
+        return searchLawyers(q, null);
+    }
+    
+    /**
+     * Lawyers matching q, best first. Ranking and the top-limit cut happen in the
+     * directory index; only the winning rows are loaded.
+     */
+    public List<Lawyer> searchLawyers(String q, Integer limit) {
         if (q == null || q.isBlank()) {
             return getAllLawyers();
         }
+        if (directoryIndex.isReady()) {
+            // Rank from the index, then load just the matching rows in that order
+            List<UUID> ids = directoryIndex.search(q, limit).stream().map(LawyerSearchDto::getId).toList();
+            Map<UUID, Integer> rank = new HashMap<>();
+            for (int i = 0; i < ids.size(); i++) {
+                rank.put(ids.get(i), i);
+            }
+            return lawyerRepository.findAllById(ids).stream()
+                    .sorted(Comparator.comparing(l -> rank.get(l.getId())))
+                    .collect(Collectors.toList());
+        }
         List<Lawyer> bySpec = lawyerRepository.findBySpecializationContainingIgnoreCase(q);
         List<Lawyer> byName = lawyerRepository.findByUser_NameContainingIgnoreCase(q);
         // Simple merge without duplicates
@@ -40,38 +81,131 @@ public class LawyerService {
         return bySpec;
     }
     
+    /**
+     * Public lawyer search, answered from the in-memory directory index once it is
+     * built and from the database only during startup.
+     */
     public List<LawyerSearchDto> searchLawyersForClients(String query) {
-        List<Lawyer> lawyers;
-        if (query == null || query.isBlank()) {
-            lawyers = getAllLawyers();
-        } else {
-            lawyers = searchLawyers(query);
+        return searchLawyersForClients(query, null);
+    }
+    
+    public List<LawyerSearchDto> searchLawyersForClients(String query, Integer limit) {
+        if (directoryIndex.isReady()) {
+            return directoryIndex.search(query, limit);
         }
         
-        return lawyers.stream()
-                .map(this::convertToSearchDto)
-                .collect(Collectors.toList());
+        if (query == null || query.isBlank()) {
+            List<LawyerSearchDto> all = lawyerRepository.findAllSearchDtos();
+            return limit != null && limit > 0 && all.size() > limit ? all.subList(0, limit) : all;
+        }
+        return lawyerRepository.searchSearchDtos(query.trim());
     }
     
-    private LawyerSearchDto convertToSearchDto(Lawyer lawyer) {
-        LawyerSearchDto dto = new LawyerSearchDto();
-        dto.setId(lawyer.getId());
+    // Typeahead for the search box; never touches the database
+    public List<LawyerSuggestionDto> suggestLawyers(String prefix, Integer limit) {
+        return suggestIndex.suggest(prefix, limit);
+    }
+    
+    /**
+     * Filtered, sorted lawyer listing paged by keyset over (sort value, id). Pages
+     * over-fetch one row to report hasMore, so no COUNT query is ever issued.
+     */
+    public LawyerPageDto searchLawyerPage(LawyerSearchCriteria criteria) {
+        String sort = criteria.getSort() != null ? criteria.getSort().toLowerCase() : "rate";
+        String column = switch (sort) {
+            case "rate" -> LawyerRepositoryCustom.SORT_RATE;
+            case "experience" -> LawyerRepositoryCustom.SORT_EXPERIENCE;
+            case "name" -> LawyerRepositoryCustom.SORT_NAME;
+            case "rating" -> LawyerRepositoryCustom.SORT_RATING;
+            default -> throw new RuntimeException("Invalid sort: " + criteria.getSort());
+        };
+        if (criteria.getDirection() != null && !criteria.getDirection().matches("(?i)asc|desc")) {
+            throw new RuntimeException("Invalid direction: " + criteria.getDirection());
+        }
+        boolean descending = "desc".equalsIgnoreCase(criteria.getDirection());
+        String sortKey = sort + (descending ? ":desc" : ":asc");
+        
+        Object afterValue = null;
+        UUID afterId = null;
+        if (criteria.getAfter() != null) {
+            LawyerCursor cursor = LawyerCursor.decode(criteria.getAfter());
+            if (!cursor.getSort().equals(sortKey)) {
+                throw new RuntimeException("Cursor was issued for a different sort");
+            }
+            afterValue = switch (sort) {
+                case "rate", "rating" -> new BigDecimal(cursor.getValue());
+                case "experience" -> Integer.valueOf(cursor.getValue());
+                default -> cursor.getValue();
+            };
+            afterId = cursor.getId();
+        }
         
-        // Fetch user data separately to avoid lazy loading issues
-        User user = userRepository.findById(lawyer.getId()).orElse(null);
-        if (user != null) {
-            dto.setName(user.getName());
-            dto.setEmail(user.getEmail());
-        } else {
-            dto.setName("Unknown");
-            dto.setEmail("unknown@example.com");
+        int size = criteria.getLimit() == null || criteria.getLimit() <= 0
+                ? DEFAULT_PAGE_SIZE : Math.min(criteria.getLimit(), MAX_PAGE_SIZE);
+        List<LawyerSearchDto> rows = lawyerRepository.findSearchPage(criteria, column, descending, afterValue, afterId, size + 1);
+        
+        boolean hasMore = rows.size() > size;
+        List<LawyerSearchDto> slice = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (!slice.isEmpty()) {
+            LawyerSearchDto last = slice.get(slice.size() - 1);
+            Object lastValue = switch (sort) {
+                case "rate" -> last.getHourlyRate();
+                case "experience" -> last.getExperienceYears();
+                case "rating" -> last.getAverageRating() != null ? last.getAverageRating() : BigDecimal.ZERO;
+                default -> last.getName();
+            };
+            nextCursor = LawyerCursor.of(sortKey, lastValue, last.getId()).encode();
+        }
+        return new LawyerPageDto(slice, nextCursor, hasMore);
+    }
+    
+    /**
+     * Lawyers with an office within radiusKm of the point, nearest first, paged by
+     * page number up to the first MAX_NEARBY_OFFSET results. Served from the geo grid; until it is built, from a bounding-box
+     * query on idx_lawyers_location with exact distances computed here.
+     */
+    public LawyerNearbyPageDto findNearbyLawyers(Double latitude, Double longitude, Double radiusKm,
+                                                 Integer page, Integer limit) {
+        if (latitude == null || latitude < -90 || latitude > 90) {
+            throw new RuntimeException("Latitude must be between -90 and 90");
         }
+        if (longitude == null || longitude < -180 || longitude > 180) {
+            throw new RuntimeException("Longitude must be between -180 and 180");
+        }
+        double radius = geoIndex.radiusOrDefault(radiusKm);
+        int size = limit == null || limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        int pageNumber = page != null && page > 0 ? page : 0;
+        if ((long) pageNumber * size > MAX_NEARBY_OFFSET) {
+            throw new RuntimeException("Page is too deep, narrow the radius instead");
+        }
+        // At most MAX_NEARBY_OFFSET + MAX_PAGE_SIZE + 1, so the int cast cannot overflow
+        int wanted = (int) ((long) (pageNumber + 1) * size + 1);
+        
+        List<LawyerDistanceDto> nearest = geoIndex.isReady()
+                ? geoIndex.nearby(latitude, longitude, radius, wanted)
+                : nearbyFromDatabase(latitude, longitude, radius, wanted);
         
-        dto.setSpecialization(lawyer.getSpecialization());
-        dto.setExperience(lawyer.getExperience());
-        dto.setVerified(lawyer.getVerified());
-        dto.setHourlyRate(lawyer.getHourlyRate());
-        return dto;
+        int from = Math.min(pageNumber * size, nearest.size());
+        int to = Math.min(from + size, nearest.size());
+        return new LawyerNearbyPageDto(nearest.subList(from, to), pageNumber, nearest.size() > to);
+    }
+    
+    private List<LawyerDistanceDto> nearbyFromDatabase(double latitude, double longitude, double radiusKm, int limit) {
+        double latSpan = radiusKm / LawyerGeoIndex.KM_PER_DEGREE;
+        double lonSpan = LawyerGeoIndex.longitudeSpan(latitude, radiusKm);
+        // A box crossing the antimeridian is widened to every longitude rather than split in two
+        boolean allLongitudes = lonSpan >= 180 || longitude - lonSpan < -180 || longitude + lonSpan > 180;
+        return lawyerRepository.findSearchDtosInBox(latitude - latSpan, latitude + latSpan,
+                        allLongitudes ? -180 : longitude - lonSpan, allLongitudes ? 180 : longitude + lonSpan)
+                .stream()
+                .map(lawyer -> new LawyerDistanceDto(lawyer,
+                        LawyerGeoIndex.distanceKm(latitude, longitude, lawyer.getLatitude(), lawyer.getLongitude())))
+                .filter(hit -> hit.getDistanceKm() <= radiusKm)
+                .sorted(Comparator.comparing(LawyerDistanceDto::getDistanceKm)
+                        .thenComparing(hit -> hit.getLawyer().getId()))
+                .limit(limit)
+                .toList();
     }
     
     public Lawyer getLawyerById(UUID id) {
@@ -79,6 +213,15 @@ public class LawyerService {
                 .orElseThrow(() -> new RuntimeException("Lawyer not found"));
     }
     
+    // Public profile view, served from the profile cache; the result is shared and must not be modified
+    public LawyerSearchDto getLawyerProfile(UUID id) {
+        LawyerSearchDto profile = profileCache.get(id, key -> lawyerRepository.findSearchDtoById(key).orElse(null));
+        if (profile == null) {
+            throw new RuntimeException("Lawyer not found");
+        }
+        return profile;
+    }
+    
     @Transactional
     public Lawyer createLawyer(UUID userId, LawyerRequest request) {
         User user = userRepository.findById(userId)
@@ -95,8 +238,12 @@ public class LawyerService {
         lawyer.setExperience(request.getExperience());
         lawyer.setVerified(false);
         lawyer.setHourlyRate(request.getHourlyRate());
+        applyLocation(lawyer, request);
         
-        return lawyerRepository.save(lawyer);
+        Lawyer saved = lawyerRepository.save(lawyer);
+        profileCache.evict(saved.getId());
+        eventPublisher.publishEvent(new LawyerChangedEvent(saved.getId()));
+        return saved;
     }
     
     @Transactional
@@ -106,20 +253,33 @@ public class LawyerService {
         lawyer.setSpecialization(request.getSpecialization());
         lawyer.setExperience(request.getExperience());
         lawyer.setHourlyRate(request.getHourlyRate());
+        applyLocation(lawyer, request);
         
-        return lawyerRepository.save(lawyer);
+        Lawyer saved = lawyerRepository.save(lawyer);
+        profileCache.evict(saved.getId());
+        eventPublisher.publishEvent(new LawyerChangedEvent(saved.getId()));
+        return saved;
     }
     
     @Transactional
     public Lawyer verifyLawyer(UUID id) {
         Lawyer lawyer = getLawyerById(id);
         lawyer.setVerified(true);
-        return lawyerRepository.save(lawyer);
+        Lawyer saved = lawyerRepository.save(lawyer);
+        profileCache.evict(saved.getId());
+        eventPublisher.publishEvent(new LawyerChangedEvent(saved.getId()));
+        return saved;
+    }
+    
+    // Location is optional on every write; a request without one keeps the stored location
+    private void applyLocation(Lawyer lawyer, LawyerRequest request) {
+        if (request.getLatitude() == null && request.getLongitude() == null) {
+            return;
+        }
+        if (request.getLatitude() == null || request.getLongitude() == null) {
+            throw new RuntimeException("Latitude and longitude must be set together");
+        }
+        lawyer.setLatitude(request.getLatitude());
+        lawyer.setLongitude(request.getLongitude());
     }
 }
-
-
-
-
-
-
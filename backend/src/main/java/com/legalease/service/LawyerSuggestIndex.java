@@ -0,0 +1,516 @@
+package com.legalease.service;
+
+import com.legalease.dto.LawyerSearchDto;
+import com.legalease.dto.LawyerSuggestionDto;
+import com.legalease.event.LawyerChangedEvent;
+import com.legalease.repository.LawyerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Typeahead over lawyer names and distinct specializations. Every word suffix of a
+ * suggestion ("john smith", "smith") is a term, so typing any word finds it.
+ *
+ * Suggestions weigh how many people stand behind them: a specialization the lawyers
+ * practising it, a name its reviews plus one (so lawyers without reviews still
+ * rank). Terms live in a persistent treap ordered by term, in which every node also
+ * points at the heaviest term below it. A lookup splits the prefix range into
+ * O(log n) subtrees and peels the heaviest suggestions off them best-first, so a
+ * one-letter prefix costs the same as a full name. Lookups read whatever root was
+ * last published, without locking, and allocate only the normalized prefix, a few
+ * small arrays and their result list.
+ *
+ * A lawyer change only path-copies the nodes above the terms it affects (its name,
+ * and its specialization's terms when that count changes) and then publishes the
+ * new root, so the cost grows with log n and never with the directory size. Only
+ * the periodic full rebuild touches every term.
+ */
+@Slf4j
+@Component
+public class LawyerSuggestIndex {
+
+    static final String NAME = "NAME";
+    static final String SPECIALIZATION = "SPECIALIZATION";
+    private static final char SEPARATOR = '\u0000';
+
+    private final LawyerRepository lawyerRepository;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    // Writer state, guarded by this; tree is the root being built up and root the published one
+    private final Map<String, Suggestion> suggestions = new HashMap<>();
+    private final Map<UUID, LawyerSearchDto> lawyers = new HashMap<>();
+    private final Random random = new Random();
+    private Node tree;
+    private int termCount;
+    private volatile Node root;
+
+    public LawyerSuggestIndex(LawyerRepository lawyerRepository,
+                              @Value("${app.lawyers.suggest.default-limit:8}") int defaultLimit,
+                              @Value("${app.lawyers.suggest.max-limit:20}") int maxLimit) {
+        this.lawyerRepository = lawyerRepository;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        rebuild();
+    }
+
+    /**
+     * Reloads every lawyer and returns whether anything differed from what the index
+     * held. Loading happens under the same lock as applying, as in LawyerDirectoryIndex,
+     * so a reload cannot undo a change applied while it was reading.
+     */
+    public synchronized boolean rebuild() {
+        List<LawyerSearchDto> all = lawyerRepository.findAllSearchDtos();
+        Map<UUID, LawyerSearchDto> previous = new HashMap<>(lawyers);
+        lawyers.clear();
+        suggestions.clear();
+        for (LawyerSearchDto lawyer : all) {
+            lawyers.put(lawyer.getId(), lawyer);
+            Suggestion name = nameSuggestion(lawyer);
+            if (name != null) {
+                suggestions.put(name.key, name);
+            }
+            String specialization = LawyerSearchIndex.normalize(lawyer.getSpecialization());
+            if (!specialization.isEmpty()) {
+                suggestions.computeIfAbsent(SPECIALIZATION + SEPARATOR + specialization,
+                        key -> specializationSuggestion(key, specialization, lawyer)).weight++;
+            }
+        }
+
+        // Sorted terms with random priorities, then the treap they define
+        TreeMap<String, Suggestion> sorted = new TreeMap<>();
+        for (Suggestion suggestion : suggestions.values()) {
+            for (String term : suggestion.terms) {
+                sorted.put(term + SEPARATOR + suggestion.key, suggestion);
+            }
+        }
+        String[] keys = sorted.keySet().toArray(new String[0]);
+        Suggestion[] owners = sorted.values().toArray(new Suggestion[0]);
+        int[] priorities = new int[keys.length];
+        for (int i = 0; i < priorities.length; i++) {
+            priorities[i] = random.nextInt();
+        }
+        tree = build(keys, owners, priorities, 0, keys.length);
+        termCount = keys.length;
+        root = tree;
+        log.info("Lawyer suggest index holds {} terms", termCount);
+        return !lawyers.equals(previous);
+    }
+
+    // Before LawyerDirectoryVersion moves on, so a new ETag never labels the old contents
+    @Order(0)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onLawyerChanged(LawyerChangedEvent event) {
+        LawyerSearchDto lawyer = lawyerRepository.findSearchDtoById(event.getLawyerId()).orElse(null);
+        LawyerSearchDto previous = lawyers.remove(event.getLawyerId());
+        if (previous != null) {
+            subtract(previous);
+        }
+        if (lawyer != null) {
+            add(lawyer);
+        }
+        root = tree;
+    }
+
+    /**
+     * Up to limit suggestions whose words start with prefix, heaviest first and
+     * alphabetical among equals. The returned list must not be modified.
+     */
+    public List<LawyerSuggestionDto> suggest(String prefix, Integer limit) {
+        String normalized = LawyerSearchIndex.normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        int k = limit != null && limit > 0 ? Math.min(limit, maxLimit) : defaultLimit;
+        TermHeap heap = new TermHeap(4 * k + 16);
+        heap.pushRange(root, normalized, true, true);
+        Suggestion[] picked = new Suggestion[k];
+        int found = 0;
+        while (found < k && heap.size > 0) {
+            Node term = heap.pop();
+            if (!contains(picked, found, term.suggestion)) {
+                picked[found++] = term.suggestion;
+            }
+        }
+
+        LawyerSuggestionDto[] results = new LawyerSuggestionDto[found];
+        for (int i = 0; i < found; i++) {
+            results[i] = picked[i].dto;
+        }
+        return Arrays.asList(results);
+    }
+
+    private void add(LawyerSearchDto lawyer) {
+        lawyers.put(lawyer.getId(), lawyer);
+        Suggestion name = nameSuggestion(lawyer);
+        if (name != null) {
+            suggestions.put(name.key, name);
+            insertTerms(name);
+        }
+        String specialization = LawyerSearchIndex.normalize(lawyer.getSpecialization());
+        if (!specialization.isEmpty()) {
+            String key = SPECIALIZATION + SEPARATOR + specialization;
+            Suggestion suggestion = suggestions.get(key);
+            if (suggestion == null) {
+                suggestion = specializationSuggestion(key, specialization, lawyer);
+                suggestion.weight = 1;
+                suggestions.put(key, suggestion);
+                insertTerms(suggestion);
+            } else {
+                suggestion.weight++;
+                reweighTerms(suggestion);
+            }
+        }
+    }
+
+    private void subtract(LawyerSearchDto lawyer) {
+        Suggestion name = suggestions.remove(NAME + SEPARATOR + lawyer.getId());
+        if (name != null) {
+            deleteTerms(name);
+        }
+        String specialization = LawyerSearchIndex.normalize(lawyer.getSpecialization());
+        Suggestion suggestion = suggestions.get(SPECIALIZATION + SEPARATOR + specialization);
+        if (suggestion == null) {
+            return;
+        }
+        if (--suggestion.weight == 0) {
+            suggestions.remove(suggestion.key);
+            deleteTerms(suggestion);
+        } else {
+            reweighTerms(suggestion);
+        }
+    }
+
+    private static Suggestion nameSuggestion(LawyerSearchDto lawyer) {
+        String name = LawyerSearchIndex.normalize(lawyer.getName());
+        if (name.isEmpty()) {
+            return null;
+        }
+        Suggestion suggestion = new Suggestion(NAME + SEPARATOR + lawyer.getId(), name,
+                new LawyerSuggestionDto(lawyer.getName().trim(), NAME, lawyer.getId()));
+        long reviews = lawyer.getReviewCount() != null ? lawyer.getReviewCount() : 0;
+        suggestion.weight = (int) Math.min(Integer.MAX_VALUE, 1 + reviews);
+        return suggestion;
+    }
+
+    // Weighs nothing until its lawyers are counted
+    private static Suggestion specializationSuggestion(String key, String normalized, LawyerSearchDto lawyer) {
+        return new Suggestion(key, normalized,
+                new LawyerSuggestionDto(lawyer.getSpecialization().trim(), SPECIALIZATION, null));
+    }
+
+    private void insertTerms(Suggestion suggestion) {
+        for (String term : suggestion.terms) {
+            tree = insert(tree, new Node(term + SEPARATOR + suggestion.key, suggestion, suggestion.weight,
+                    random.nextInt(), null, null));
+            termCount++;
+        }
+    }
+
+    private void deleteTerms(Suggestion suggestion) {
+        for (String term : suggestion.terms) {
+            tree = delete(tree, term + SEPARATOR + suggestion.key);
+            termCount--;
+        }
+    }
+
+    private void reweighTerms(Suggestion suggestion) {
+        for (String term : suggestion.terms) {
+            tree = reweigh(tree, term + SEPARATOR + suggestion.key, suggestion.weight);
+        }
+    }
+
+    // "john a smith" -> "john a smith", "a smith", "smith"
+    private static List<String> wordSuffixes(String normalized) {
+        List<String> suffixes = new ArrayList<>();
+        suffixes.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            suffixes.add(normalized.substring(i + 1));
+        }
+        return suffixes;
+    }
+
+    // The treap over keys[from, to): the highest priority is the root, expected O(n log n)
+    private static Node build(String[] keys, Suggestion[] owners, int[] priorities, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int top = from;
+        for (int i = from + 1; i < to; i++) {
+            if (priorities[i] > priorities[top]) {
+                top = i;
+            }
+        }
+        return new Node(keys[top], owners[top], owners[top].weight, priorities[top],
+                build(keys, owners, priorities, from, top), build(keys, owners, priorities, top + 1, to));
+    }
+
+    // The operations below never modify a node; they copy the path to the change instead
+
+    private static Node insert(Node node, Node leaf) {
+        if (node == null) {
+            return leaf;
+        }
+        if (leaf.priority > node.priority) {
+            Node[] parts = split(node, leaf.key);
+            return leaf.with(parts[0], parts[1]);
+        }
+        if (leaf.key.compareTo(node.key) < 0) {
+            return node.with(insert(node.left, leaf), node.right);
+        }
+        return node.with(node.left, insert(node.right, leaf));
+    }
+
+    // Keys before key, and key and after
+    private static Node[] split(Node node, String key) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (node.key.compareTo(key) < 0) {
+            Node[] parts = split(node.right, key);
+            parts[0] = node.with(node.left, parts[0]);
+            return parts;
+        }
+        Node[] parts = split(node.left, key);
+        parts[1] = node.with(parts[1], node.right);
+        return parts;
+    }
+
+    private static Node delete(Node node, String key) {
+        if (node == null) {
+            return null;
+        }
+        int order = key.compareTo(node.key);
+        if (order < 0) {
+            return node.with(delete(node.left, key), node.right);
+        }
+        if (order > 0) {
+            return node.with(node.left, delete(node.right, key));
+        }
+        return merge(node.left, node.right);
+    }
+
+    // Every key in a is before every key in b
+    private static Node merge(Node a, Node b) {
+        if (a == null || b == null) {
+            return a == null ? b : a;
+        }
+        if (a.priority > b.priority) {
+            return a.with(a.left, merge(a.right, b));
+        }
+        return b.with(merge(a, b.left), b.right);
+    }
+
+    private static Node reweigh(Node node, String key, int weight) {
+        if (node == null) {
+            return null;
+        }
+        int order = key.compareTo(node.key);
+        if (order < 0) {
+            return node.with(reweigh(node.left, key, weight), node.right);
+        }
+        if (order > 0) {
+            return node.with(node.left, reweigh(node.right, key, weight));
+        }
+        return new Node(node.key, node.suggestion, weight, node.priority, node.left, node.right);
+    }
+
+    // Heavier of two terms, the earlier one among equals; either may be null
+    private static Node heavier(Node a, Node b) {
+        if (a == null || b == null) {
+            return a == null ? b : a;
+        }
+        if (a.weight != b.weight) {
+            return a.weight > b.weight ? a : b;
+        }
+        return a.key.compareTo(b.key) <= 0 ? a : b;
+    }
+
+    private static boolean contains(Suggestion[] values, int count, Suggestion value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Suggestion {
+        private final String key;
+        private final List<String> terms;
+        private final LawyerSuggestionDto dto;
+        // Lawyers behind a specialization, reviews plus one behind a name
+        private int weight;
+
+        private Suggestion(String key, String normalized, LawyerSuggestionDto dto) {
+            this.key = key;
+            this.terms = wordSuffixes(normalized);
+            this.dto = dto;
+        }
+    }
+
+    private static final class Node {
+        // The term, then the suggestion key, so equal terms of different suggestions stay apart
+        private final String key;
+        private final Suggestion suggestion;
+        private final int weight;
+        private final int priority;
+        private final Node left;
+        private final Node right;
+        // Heaviest term in this subtree, the earliest among equals
+        private final Node top;
+
+        private Node(String key, Suggestion suggestion, int weight, int priority, Node left, Node right) {
+            this.key = key;
+            this.suggestion = suggestion;
+            this.weight = weight;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.top = heavier(heavier(left != null ? left.top : null, this), right != null ? right.top : null);
+        }
+
+        private Node with(Node left, Node right) {
+            return new Node(key, suggestion, weight, priority, left, right);
+        }
+    }
+
+    // Max-heap of single terms and whole subtrees, the latter ordered by their top term
+    private static final class TermHeap {
+        private Node[] nodes;
+        private boolean[] subtrees;
+        private int size;
+
+        private TermHeap(int capacity) {
+            this.nodes = new Node[capacity];
+            this.subtrees = new boolean[capacity];
+        }
+
+        // Pushes the terms under node that start with prefix as single terms and whole subtrees
+        private void pushRange(Node node, String prefix, boolean checkLow, boolean checkHigh) {
+            while (node != null) {
+                if (!checkLow && !checkHigh) {
+                    push(node, true);
+                    return;
+                }
+                if (checkLow && node.key.compareTo(prefix) < 0) {
+                    node = node.right;
+                } else if (checkHigh && !node.key.startsWith(prefix)) {
+                    node = node.left;
+                } else {
+                    push(node, false);
+                    pushRange(node.left, prefix, checkLow, false);
+                    node = node.right;
+                    checkLow = false;
+                }
+            }
+        }
+
+        // The heaviest term; popping a subtree re-queues the rest of it around its top term
+        private Node pop() {
+            Node node = nodes[0];
+            boolean subtree = subtrees[0];
+            size--;
+            move(size, 0);
+            nodes[size] = null;
+            int at = 0;
+            while (true) {
+                int child = 2 * at + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && before(child + 1, child)) {
+                    child++;
+                }
+                if (!before(child, at)) {
+                    break;
+                }
+                swap(at, child);
+                at = child;
+            }
+            if (!subtree) {
+                return node;
+            }
+            // Walk down to the top term, queueing each node passed and the side not taken
+            Node top = node.top;
+            Node on = node;
+            while (on != top) {
+                push(on, false);
+                if (on.left != null && on.left.top == top) {
+                    if (on.right != null) {
+                        push(on.right, true);
+                    }
+                    on = on.left;
+                } else {
+                    if (on.left != null) {
+                        push(on.left, true);
+                    }
+                    on = on.right;
+                }
+            }
+            if (on.left != null) {
+                push(on.left, true);
+            }
+            if (on.right != null) {
+                push(on.right, true);
+            }
+            return top;
+        }
+
+        private void push(Node node, boolean subtree) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                subtrees = Arrays.copyOf(subtrees, size * 2);
+            }
+            int at = size++;
+            nodes[at] = node;
+            subtrees[at] = subtree;
+            while (at > 0 && before(at, (at - 1) / 2)) {
+                swap(at, (at - 1) / 2);
+                at = (at - 1) / 2;
+            }
+        }
+
+        private Node term(int at) {
+            return subtrees[at] ? nodes[at].top : nodes[at];
+        }
+
+        private boolean before(int a, int b) {
+            Node ta = term(a);
+            Node tb = term(b);
+            return ta != tb && heavier(ta, tb) == ta;
+        }
+
+        private void move(int from, int to) {
+            nodes[to] = nodes[from];
+            subtrees[to] = subtrees[from];
+        }
+
+        private void swap(int a, int b) {
+            Node node = nodes[a];
+            boolean subtree = subtrees[a];
+            move(b, a);
+            nodes[b] = node;
+            subtrees[b] = subtree;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.legalease.service;
+
+import com.legalease.entity.CaseStatus;
+import com.legalease.event.LawyerWorkloadEvent;
+import com.legalease.repository.CaseRepository;
+import com.legalease.repository.CaseRequestRepository;
+import com.legalease.repository.LawyerCount;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Open cases and pending case requests per lawyer, held in memory so recommendations
+ * never count rows at request time. Loaded with one GROUP BY per table once the
+ * application is ready, then kept current by the deltas CaseService and
+ * CaseRequestService publish on each state transition, applied when their
+ * transaction commits. A periodic pass reloads the counts to repair drift.
+ *
+ * A reload must not overwrite a delta that arrives while it counts, nor set a count
+ * that a delta still on its way is about to add to again. So every counter carries a
+ * generation that each delta bumps, and every lawyer the number of transactions with
+ * a delta not yet applied. A counter is repaired only if no such transaction was
+ * open and its generation is unchanged since before the counting started; anything
+ * skipped is looked at again on the next pass.
+ */
+@Slf4j
+@Component
+public class LawyerWorkloadTable {
+
+    // Case statuses that still take a lawyer's time
+    static final Set<CaseStatus> OPEN_STATUSES = EnumSet.of(CaseStatus.ACTIVE, CaseStatus.PENDING);
+
+    private final CaseRepository caseRepository;
+    private final CaseRequestRepository caseRequestRepository;
+    private final Map<UUID, Load> loads = new ConcurrentHashMap<>();
+
+    public LawyerWorkloadTable(CaseRepository caseRepository, CaseRequestRepository caseRequestRepository) {
+        this.caseRepository = caseRepository;
+        this.caseRequestRepository = caseRequestRepository;
+    }
+
+    static boolean isOpen(CaseStatus status) {
+        return status != null && OPEN_STATUSES.contains(status);
+    }
+
+    public int openCases(UUID lawyerId) {
+        Load load = loads.get(lawyerId);
+        return load != null ? valueOf(load.openCases.get()) : 0;
+    }
+
+    public int pendingRequests(UUID lawyerId) {
+        Load load = loads.get(lawyerId);
+        return load != null ? valueOf(load.pendingRequests.get()) : 0;
+    }
+
+    /**
+     * Takes the delta when it is published, inside the transaction making the change,
+     * and applies it once that transaction commits. Counting it as in flight from the
+     * start is what lets a reload tell a settled counter from one about to move.
+     */
+    @EventListener
+    public void onWorkloadChanged(LawyerWorkloadEvent event) {
+        Load load = loads.computeIfAbsent(event.getLawyerId(), id -> new Load(0, 0));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            load.apply(event);
+            return;
+        }
+        load.inFlight.incrementAndGet();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    load.apply(event);
+                }
+                load.inFlight.decrementAndGet();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        reload();
+    }
+
+    @Scheduled(initialDelayString = "${app.lawyers.workload.reconcile-ms:300000}",
+               fixedDelayString = "${app.lawyers.workload.reconcile-ms:300000}")
+    public void reload() {
+        // Counter states from before counting, to repair only what stayed put
+        Map<UUID, long[]> seen = new HashMap<>();
+        loads.forEach((id, load) -> seen.put(id, new long[]{load.openCases.get(), load.pendingRequests.get()}));
+
+        Map<UUID, int[]> counted = new HashMap<>();
+        for (LawyerCount row : caseRepository.countByLawyerWithStatusIn(OPEN_STATUSES)) {
+            counted.computeIfAbsent(row.getLawyerId(), id -> new int[2])[0] = (int) row.getCount();
+        }
+        for (LawyerCount row : caseRequestRepository.countPendingRequestsGroupedByLawyer()) {
+            counted.computeIfAbsent(row.getLawyerId(), id -> new int[2])[1] = (int) row.getCount();
+        }
+
+        int repaired = 0;
+        for (Map.Entry<UUID, long[]> e : seen.entrySet()) {
+            int[] actual = counted.getOrDefault(e.getKey(), new int[2]);
+            repaired += loads.get(e.getKey()).repair(e.getValue(), actual) ? 1 : 0;
+        }
+        // A lawyer first seen now has no delta in flight either, since publishing one creates its entry
+        counted.forEach((id, actual) -> loads.putIfAbsent(id, new Load(actual[0], actual[1])));
+        if (repaired > 0) {
+            log.info("Repaired {} drifted lawyer workload counters", repaired);
+        }
+    }
+
+    // A counter's state: the generation in the high half, the count in the low half
+    private static long state(long generation, int value) {
+        return generation << 32 | (value & 0xFFFFFFFFL);
+    }
+
+    private static int valueOf(long state) {
+        return (int) state;
+    }
+
+    private static long moved(long state, int value) {
+        return state((state >>> 32) + 1, value);
+    }
+
+    private static final class Load {
+        private final AtomicLong openCases;
+        private final AtomicLong pendingRequests;
+        // Transactions that published a delta for this lawyer and have not completed yet
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private Load(int openCases, int pendingRequests) {
+            this.openCases = new AtomicLong(state(0, openCases));
+            this.pendingRequests = new AtomicLong(state(0, pendingRequests));
+        }
+
+        private void apply(LawyerWorkloadEvent event) {
+            openCases.updateAndGet(state -> moved(state, Math.max(0, valueOf(state) + event.getOpenCasesDelta())));
+            pendingRequests.updateAndGet(state -> moved(state, Math.max(0, valueOf(state) + event.getPendingRequestsDelta())));
+        }
+
+        private boolean repair(long[] seen, int[] actual) {
+            if (inFlight.get() > 0) {
+                return false;
+            }
+            boolean repaired = repair(openCases, seen[0], actual[0]);
+            return repair(pendingRequests, seen[1], actual[1]) || repaired;
+        }
+
+        private static boolean repair(AtomicLong counter, long seen, int actual) {
+            return valueOf(seen) != actual && counter.compareAndSet(seen, moved(seen, actual));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.legalease.service;
+
+import com.legalease.entity.Message;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque (createdAt, id) position in a message thread. The id breaks ties between
+ * messages created in the same microsecond, so paging never skips or repeats rows.
+ */
+public final class MessageCursor {
+
+    private final LocalDateTime createdAt;
+    private final UUID id;
+
+    private MessageCursor(LocalDateTime createdAt, UUID id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static MessageCursor of(Message message) {
+        return new MessageCursor(message.getCreatedAt(), message.getId());
+    }
+
+    public static MessageCursor of(LocalDateTime createdAt, UUID id) {
+        return new MessageCursor(createdAt, id);
+    }
+
+    /**
+     * Position after every message, for bulk operations that the database bounds by
+     * what is actually stored rather than by a cursor.
+     */
+    public static MessageCursor end() {
+        return new MessageCursor(LocalDateTime.of(9999, 12, 31, 0, 0), new UUID(-1L, -1L));
+    }
+
+    public static MessageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new MessageCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException ex) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Same ordering as Postgres applies to (created_at, id): uuid values compare
+     * as unsigned bytes, unlike UUID.compareTo which compares signed longs.
+     */
+    public boolean isAfter(MessageCursor other) {
+        int byTime = createdAt.compareTo(other.createdAt);
+        if (byTime != 0) {
+            return byTime > 0;
+        }
+        int byHigh = Long.compareUnsigned(id.getMostSignificantBits(), other.id.getMostSignificantBits());
+        if (byHigh != 0) {
+            return byHigh > 0;
+        }
+        return Long.compareUnsigned(id.getLeastSignificantBits(), other.id.getLeastSignificantBits()) > 0;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+}
@@ -0,0 +1,202 @@
+package com.legalease.service;
+
+import com.legalease.entity.Message;
+import com.legalease.exception.MessageQueueFullException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Bounded write-behind buffer for incoming messages. A single writer thread drains it
+ * in batches of up to max-batch-size, waiting at most flush-interval-ms for a batch
+ * to fill, and hands each batch to the flush handler registered by MessageService.
+ *
+ * Durability is set by sync-mode: "commit" makes senders wait until their batch has
+ * committed, "none" acknowledges on enqueue and may lose queued messages on a crash.
+ * When the queue is full, senders wait up to offer-timeout-ms and are then rejected;
+ * once the queue is stopping, every sender is.
+ */
+@Slf4j
+@Component
+public class MessageIngestionQueue implements SmartLifecycle {
+
+    private final boolean enabled;
+    private final boolean waitForCommit;
+    private final BlockingQueue<PendingMessage> queue;
+    private final int maxBatchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+    private final long commitTimeoutMs;
+
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+    private volatile boolean running;
+    private Consumer<List<Message>> flushHandler;
+    private Thread writer;
+
+    public MessageIngestionQueue(@Value("${app.messaging.ingest.mode:direct}") String mode,
+                                 @Value("${app.messaging.ingest.sync-mode:commit}") String syncMode,
+                                 @Value("${app.messaging.ingest.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${app.messaging.ingest.max-batch-size:500}") int maxBatchSize,
+                                 @Value("${app.messaging.ingest.flush-interval-ms:50}") long flushIntervalMs,
+                                 @Value("${app.messaging.ingest.offer-timeout-ms:200}") long offerTimeoutMs,
+                                 @Value("${app.messaging.ingest.commit-timeout-ms:5000}") long commitTimeoutMs) {
+        this.enabled = "queued".equalsIgnoreCase(mode);
+        this.waitForCommit = !"none".equalsIgnoreCase(syncMode);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.commitTimeoutMs = commitTimeoutMs;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setFlushHandler(Consumer<List<Message>> flushHandler) {
+        this.flushHandler = flushHandler;
+    }
+
+    // Started once the context is refreshed and stopped before any bean is destroyed,
+    // so the writer can still reach the database while it drains on shutdown
+    @Override
+    public synchronized void start() {
+        if (!enabled || running || flushHandler == null) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drainLoop, "message-ingest-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Queued message ingestion started (batch {}, interval {} ms, wait for commit: {})",
+                maxBatchSize, flushIntervalMs, waitForCommit);
+    }
+
+    /**
+     * Queues a message whose id is already assigned. Returns true once the message is
+     * committed, or false when it was accepted but is not known to be stored yet: always
+     * with sync-mode "none", and with "commit" when the batch is still running after
+     * commit-timeout-ms. An accepted message is still written, so callers must not
+     * resend it. Throws only when the message was not accepted or its write failed.
+     */
+    public boolean submit(Message message) {
+        PendingMessage pending = new PendingMessage(message);
+        boolean accepted;
+        // Held across the offer so stop() cannot slip in between the check and the enqueue
+        stateLock.readLock().lock();
+        try {
+            if (!running) {
+                throw new MessageQueueFullException("Message ingestion is shutting down, please retry");
+            }
+            accepted = queue.offer(pending, offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        } finally {
+            stateLock.readLock().unlock();
+        }
+        if (!accepted) {
+            throw new MessageQueueFullException("Message queue is full, please retry");
+        }
+        if (!waitForCommit) {
+            return false;
+        }
+        try {
+            pending.committed.get(commitTimeoutMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException ex) {
+            return false;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException ex) {
+            throw new RuntimeException("Message could not be stored");
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        // Everything accepted before this point is in the queue and gets drained below
+        stateLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+        if (writer != null) {
+            try {
+                writer.join(commitTimeoutMs);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drainLoop() {
+        List<PendingMessage> batch = new ArrayList<>(maxBatchSize);
+        // Keep draining after stop() until everything accepted so far is written
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMessage first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                flush(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingMessage> batch) {
+        try {
+            flushHandler.accept(batch.stream().map(p -> p.message).toList());
+            batch.forEach(p -> p.committed.complete(null));
+        } catch (RuntimeException batchFailure) {
+            // Isolate the bad rows (e.g. an unknown user id) so one message cannot sink its whole batch
+            log.warn("Message batch of {} failed, retrying one by one: {}", batch.size(), batchFailure.getMessage());
+            for (PendingMessage pending : batch) {
+                try {
+                    flushHandler.accept(List.of(pending.message));
+                    pending.committed.complete(null);
+                } catch (RuntimeException ex) {
+                    log.error("Dropping message {}: {}", pending.message.getId(), ex.getMessage());
+                    pending.committed.completeExceptionally(ex);
+                }
+            }
+        }
+    }
+
+    private static final class PendingMessage {
+        private final Message message;
+        private final CompletableFuture<Void> committed = new CompletableFuture<>();
+
+        private PendingMessage(Message message) {
+            this.message = message;
+        }
+    }
+}
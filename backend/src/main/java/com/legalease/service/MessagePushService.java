@@ -0,0 +1,115 @@
+package com.legalease.service;
+
+import com.legalease.event.MessageEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the open server-sent event streams per user and fans out message events
+ * to them, so clients no longer have to poll the unread-count endpoint.
+ */
+@Slf4j
+@Service
+public class MessagePushService {
+
+    private final Map<UUID, Set<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private final TaskExecutor pushExecutor;
+    private final long timeoutMs;
+
+    public MessagePushService(@Qualifier("messagePushExecutor") TaskExecutor pushExecutor,
+                              @Value("${app.messaging.push.timeout-ms:1800000}") long timeoutMs) {
+        this.pushExecutor = pushExecutor;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public SseEmitter subscribe(UUID userId, Long unreadCount) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitters.compute(userId, (id, userEmitters) -> {
+            Set<SseEmitter> set = userEmitters != null ? userEmitters : ConcurrentHashMap.newKeySet();
+            set.add(emitter);
+            return set;
+        });
+
+        emitter.onCompletion(() -> remove(userId, emitter));
+        emitter.onTimeout(() -> remove(userId, emitter));
+        emitter.onError(ex -> remove(userId, emitter));
+
+        // Send the current count right away so the client never needs an initial poll
+        dispatch(userId, () -> send(userId, emitter, SseEmitter.event().name("unread-count").data(unreadCount)));
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMessageEvent(MessageEvent event) {
+        Set<SseEmitter> userEmitters = emitters.get(event.getUserId());
+        if (userEmitters == null || userEmitters.isEmpty()) {
+            return;
+        }
+        // Runs after the message has committed, so a full push queue must not fail the send
+        dispatch(event.getUserId(), () -> {
+            for (SseEmitter emitter : userEmitters) {
+                if (event.getMessage() != null) {
+                    send(event.getUserId(), emitter, SseEmitter.event().name("message").data(event.getMessage()));
+                }
+                if (event.getUnreadCount() != null) {
+                    send(event.getUserId(), emitter, SseEmitter.event().name("unread-count").data(event.getUnreadCount()));
+                }
+            }
+        });
+    }
+
+    /**
+     * Comment-only heartbeat that keeps proxies from closing idle streams and
+     * flushes out connections whose client went away without a FIN. The writes go
+     * through the push executor, so a slow client never holds up the shared
+     * scheduler thread and the other jobs on it.
+     */
+    @Scheduled(fixedDelayString = "${app.messaging.push.heartbeat-ms:25000}")
+    public void heartbeat() {
+        emitters.forEach((userId, userEmitters) -> dispatch(userId, () -> {
+            for (SseEmitter emitter : userEmitters) {
+                send(userId, emitter, SseEmitter.event().comment("ping"));
+            }
+        }));
+    }
+
+    // Pushes are best effort: when the executor's queue is full the push is dropped, not the caller's request
+    private void dispatch(UUID userId, Runnable push) {
+        try {
+            pushExecutor.execute(push);
+        } catch (TaskRejectedException ex) {
+            log.warn("Push queue full, dropping push for user {}", userId);
+        }
+    }
+
+    private void send(UUID userId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException ex) {
+            log.debug("Dropping push connection for user {}: {}", userId, ex.getMessage());
+            remove(userId, emitter);
+            emitter.completeWithError(ex);
+        }
+    }
+
+    private void remove(UUID userId, SseEmitter emitter) {
+        emitters.computeIfPresent(userId, (id, userEmitters) -> {
+            userEmitters.remove(emitter);
+            return userEmitters.isEmpty() ? null : userEmitters;
+        });
+    }
+}
@@ -1,19 +1,48 @@
 package com.legalease.service;
 
+import com.legalease.dto.ConversationDto;
+import com.legalease.dto.InboxPageDto;
 import com.legalease.dto.MessageDto;
+import com.legalease.dto.MessagePageDto;
+import com.legalease.dto.MessageReadPositionDto;
+import com.legalease.dto.MessageReadResultDto;
+import com.legalease.dto.MessageSearchPageDto;
+import com.legalease.dto.MessageSyncDto;
 import com.legalease.entity.Case;
+import com.legalease.entity.Conversation;
 import com.legalease.entity.Message;
+import com.legalease.entity.MessageReadWatermark;
 import com.legalease.entity.User;
+import com.legalease.event.MessageEvent;
 import com.legalease.repository.CaseRepository;
+import com.legalease.repository.ConversationRepository;
+import com.legalease.repository.MessageReadWatermarkRepository;
 import com.legalease.repository.MessageRepository;
+import com.legalease.repository.MessageSequenceRepository;
+import com.legalease.repository.MessageView;
 import com.legalease.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,11 +50,74 @@ import java.util.stream.Collectors;
 @Transactional
 public class MessageService {
     
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int PREVIEW_LENGTH = 140;
+    
     private final MessageRepository messageRepository;
+    private final MessageReadWatermarkRepository watermarkRepository;
+    private final MessageSequenceRepository sequenceRepository;
+    private final ConversationRepository conversationRepository;
     private final UserRepository userRepository;
     private final CaseRepository caseRepository;
+    private final UnreadCountCache unreadCountCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MessageIngestionQueue ingestionQueue;
+    private final TransactionTemplate transactionTemplate;
+    
+    @PostConstruct
+    void registerIngestionHandler() {
+        ingestionQueue.setFlushHandler(this::persistBatch);
+    }
     
+    /**
+     * Stores a message. In direct mode this is one transaction per message; in queued
+     * mode the message is handed to the write-behind queue and stored with others in
+     * a single batch, see MessageIngestionQueue. A queued message that is accepted but
+     * not yet known to be committed comes back marked pending and without a seq; it is
+     * still stored, and reaches both sides over the push stream and delta sync.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public MessageDto sendMessage(UUID senderId, UUID receiverId, String content, UUID caseId) {
+        if (!ingestionQueue.isEnabled()) {
+            return transactionTemplate.execute(status -> storeMessage(senderId, receiverId, content, caseId));
+        }
+        
+        // One read for both users, for their names; an unknown case is rejected by its foreign key at flush
+        Map<UUID, User> participants = userRepository.findAllById(List.of(senderId, receiverId)).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        User sender = participants.get(senderId);
+        User receiver = participants.get(receiverId);
+        if (sender == null) {
+            throw new RuntimeException("Sender not found");
+        }
+        if (receiver == null) {
+            throw new RuntimeException("Receiver not found");
+        }
+        
+        Message message = new Message();
+        message.setId(UUID.randomUUID());
+        message.setSender(sender);
+        message.setReceiver(receiver);
+        message.setConversationKey(ConversationKeys.of(senderId, receiverId, caseId));
+        message.setContent(content);
+        message.setIsRead(false);
+        message.setCreatedAt(LocalDateTime.now());
+        if (caseId != null) {
+            message.setCaseEntity(caseRepository.getReferenceById(caseId));
+        }
+        
+        boolean stored = ingestionQueue.submit(message);
+        MessageDto dto = convertToDto(message, senderId, receiverId, caseId,
+                Map.of(senderId, sender.getName(), receiverId, receiver.getName()));
+        if (!stored) {
+            dto.setSeq(null);
+            dto.setPending(true);
+        }
+        return dto;
+    }
+    
+    private MessageDto storeMessage(UUID senderId, UUID receiverId, String content, UUID caseId) {
         User sender = userRepository.findById(senderId)
                 .orElseThrow(() -> new RuntimeException("Sender not found"));
         User receiver = userRepository.findById(receiverId)
@@ -34,6 +126,7 @@ public class MessageService {
         Message message = new Message();
         message.setSender(sender);
         message.setReceiver(receiver);
+        message.setConversationKey(ConversationKeys.of(senderId, receiverId, caseId));
         message.setContent(content);
         message.setIsRead(false);
         
@@ -43,73 +136,497 @@ public class MessageService {
             message.setCaseEntity(caseEntity);
         }
         
+        message.setSeq(sequenceRepository.allocate(message.getConversationKey(), 1));
         Message savedMessage = messageRepository.save(message);
-        return convertToDto(savedMessage);
+        watermarkRepository.ensureWatermark(UUID.randomUUID(), receiverId, savedMessage.getConversationKey());
+        recordInConversations(savedMessage, senderId, receiverId, caseId);
+        MessageDto dto = convertToDto(savedMessage);
+        
+        unreadCountCache.adjust(receiverId, 1);
+        eventPublisher.publishEvent(new MessageEvent(receiverId, dto, unreadCountCache.get(receiverId)));
+        eventPublisher.publishEvent(new MessageEvent(senderId, dto, null));
+        return dto;
+    }
+    
+    /**
+     * Flush handler for queued ingestion: one JDBC batch insert for the batch (see
+     * MessageRepositoryCustom.insertBatch), then the watermark, inbox, cache and push
+     * side effects once per conversation rather than once per message. Sequence numbers
+     * are allocated here, inside the transaction that inserts the rows, so they follow
+     * commit order and delta sync never skips past a seq that commits later.
+     */
+    private void persistBatch(List<Message> batch) {
+        Set<UUID> userIds = new HashSet<>();
+        batch.forEach(m -> {
+            userIds.add(m.getSender().getId());
+            userIds.add(m.getReceiver().getId());
+        });
+        
+        List<MessageEvent> events = new ArrayList<>(batch.size() * 2);
+        transactionTemplate.executeWithoutResult(status -> {
+            stampCreatedAt(batch);
+            assignSequences(batch);
+            messageRepository.insertBatch(batch);
+            
+            // Batches are in arrival order, so the last message per conversation and owner wins the inbox preview
+            Map<String, List<Message>> byConversation = batch.stream()
+                    .collect(Collectors.groupingBy(m -> m.getConversationKey() + "|" + m.getReceiver().getId(),
+                            LinkedHashMap::new, Collectors.toList()));
+            Map<UUID, Long> receivedPerUser = new HashMap<>();
+            for (List<Message> group : byConversation.values()) {
+                Message first = group.get(0);
+                UUID receiverId = first.getReceiver().getId();
+                watermarkRepository.ensureWatermark(UUID.randomUUID(), receiverId, first.getConversationKey());
+                recordBatchInConversations(group);
+                receivedPerUser.merge(receiverId, (long) group.size(), Long::sum);
+            }
+            receivedPerUser.forEach(unreadCountCache::adjust);
+            
+            Map<UUID, String> names = userRepository.findAllById(userIds).stream()
+                    .collect(Collectors.toMap(User::getId, User::getName));
+            for (Message message : batch) {
+                UUID senderId = message.getSender().getId();
+                UUID receiverId = message.getReceiver().getId();
+                UUID caseId = message.getCaseEntity() != null ? message.getCaseEntity().getId() : null;
+                MessageDto dto = convertToDto(message, senderId, receiverId, caseId, names);
+                events.add(new MessageEvent(receiverId, dto, null));
+                events.add(new MessageEvent(senderId, dto, null));
+            }
+            receivedPerUser.keySet().forEach(receiverId ->
+                    events.add(new MessageEvent(receiverId, null, unreadCountCache.get(receiverId))));
+            events.forEach(eventPublisher::publishEvent);
+        });
+    }
+    
+    /**
+     * Dates the batch at flush time, one microsecond apart in arrival order. Batches
+     * commit one after another, so created_at then follows commit order within every
+     * conversation, as it does for directly stored messages; read watermarks rely on
+     * that (see MessageReadWatermarkRepository.markReadUpTo). Submission times would
+     * not: two senders can be dated in one order and queued in the other.
+     */
+    private void stampCreatedAt(List<Message> batch) {
+        LocalDateTime base = LocalDateTime.now();
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).setCreatedAt(base.plusNanos(i * 1_000L));
+        }
     }
     
+    /**
+     * Hands out one block of sequence numbers per conversation in the batch, in a fixed
+     * key order so concurrent allocations cannot deadlock on the sequence rows.
+     */
+    private void assignSequences(List<Message> batch) {
+        Map<String, List<Message>> byKey = batch.stream()
+                .collect(Collectors.groupingBy(Message::getConversationKey, TreeMap::new, Collectors.toList()));
+        byKey.forEach((key, messages) -> {
+            long next = sequenceRepository.allocate(key, messages.size()) - messages.size();
+            for (Message message : messages) {
+                message.setSeq(++next);
+            }
+        });
+    }
+    
+    @Transactional(readOnly = true)
     public List<MessageDto> getConversation(UUID user1Id, UUID user2Id) {
-        User user1 = userRepository.findById(user1Id)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        User user2 = userRepository.findById(user2Id)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (!userRepository.existsById(user1Id) || !userRepository.existsById(user2Id)) {
+            throw new RuntimeException("User not found");
+        }
         
-        return messageRepository.findConversationBetweenUsers(user1, user2)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return toDtos(messageRepository.findConversationViews(user1Id, user2Id));
     }
     
+    @Transactional(readOnly = true)
     public List<MessageDto> getMessagesByCase(UUID caseId) {
-        Case caseEntity = caseRepository.findById(caseId)
-                .orElseThrow(() -> new RuntimeException("Case not found"));
+        if (!caseRepository.existsById(caseId)) {
+            throw new RuntimeException("Case not found");
+        }
         
-        return messageRepository.findByCaseEntityOrderByCreatedAtAsc(caseEntity)
-                .stream()
+        return toDtos(messageRepository.findCaseViews(caseId));
+    }
+    
+    @Transactional(readOnly = true)
+    public MessagePageDto getConversationPage(UUID user1Id, UUID user2Id, String before, String after, Integer limit) {
+        int size = pageSize(limit);
+        if (before != null && after != null) {
+            throw new RuntimeException("Specify either before or after, not both");
+        }
+        
+        List<MessageView> rows;
+        if (after != null) {
+            MessageCursor cursor = MessageCursor.decode(after);
+            rows = messageRepository.findConversationAfter(user1Id, user2Id, cursor.getCreatedAt(), cursor.getId(), size + 1);
+        } else if (before != null) {
+            MessageCursor cursor = MessageCursor.decode(before);
+            rows = messageRepository.findConversationBefore(user1Id, user2Id, cursor.getCreatedAt(), cursor.getId(), size + 1);
+        } else {
+            rows = messageRepository.findConversationLatest(user1Id, user2Id, size + 1);
+        }
+        return toPage(rows, size, after == null);
+    }
+    
+    @Transactional(readOnly = true)
+    public MessagePageDto getCaseMessagePage(UUID caseId, String before, String after, Integer limit) {
+        int size = pageSize(limit);
+        PageRequest page = PageRequest.of(0, size + 1);
+        if (before != null && after != null) {
+            throw new RuntimeException("Specify either before or after, not both");
+        }
+        
+        List<MessageView> rows;
+        if (after != null) {
+            MessageCursor cursor = MessageCursor.decode(after);
+            rows = messageRepository.findCaseAfter(caseId, cursor.getCreatedAt(), cursor.getId(), page);
+        } else if (before != null) {
+            MessageCursor cursor = MessageCursor.decode(before);
+            rows = messageRepository.findCaseBefore(caseId, cursor.getCreatedAt(), cursor.getId(), page);
+        } else {
+            rows = messageRepository.findCaseLatest(caseId, page);
+        }
+        return toPage(rows, size, after == null);
+    }
+    
+    /**
+     * Delta sync for a direct thread: messages with a sequence number above since, in
+     * sequence order, plus every participant's current read position. Clients keep the
+     * returned latestSeq and pass it back on reconnect.
+     */
+    @Transactional(readOnly = true)
+    public MessageSyncDto syncConversation(UUID user1Id, UUID user2Id, Long since, Integer limit) {
+        return sync(ConversationKeys.direct(user1Id, user2Id), since, limit);
+    }
+    
+    @Transactional(readOnly = true)
+    public MessageSyncDto syncCaseMessages(UUID caseId, Long since, Integer limit) {
+        return sync(ConversationKeys.forCase(caseId), since, limit);
+    }
+    
+    /**
+     * Full-text search over every thread the user sends or receives in, best matches
+     * first with older messages gradually ranked lower. Pages are numbered from 0.
+     */
+    @Transactional(readOnly = true)
+    public MessageSearchPageDto searchMessages(UUID userId, String query, Integer page, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new RuntimeException("Search query is required");
+        }
+        int size = pageSize(limit);
+        int pageNumber = page != null && page > 0 ? page : 0;
+        
+        List<MessageView> rows = messageRepository.search(userId, query.trim(), size + 1, (long) pageNumber * size);
+        boolean hasMore = rows.size() > size;
+        List<MessageView> slice = hasMore ? rows.subList(0, size) : rows;
+        return new MessageSearchPageDto(toDtos(slice), pageNumber, hasMore);
+    }
+    
+    /**
+     * Inbox for one user, most recently active conversation first, served from the
+     * conversations read model in one indexed query per page.
+     */
+    @Transactional(readOnly = true)
+    public InboxPageDto getInbox(UUID userId, String before, Integer limit) {
+        int size = pageSize(limit);
+        PageRequest page = PageRequest.of(0, size + 1);
+        
+        List<Conversation> rows;
+        if (before != null) {
+            MessageCursor cursor = MessageCursor.decode(before);
+            rows = conversationRepository.findInboxBefore(userId, cursor.getCreatedAt(), cursor.getId(), page);
+        } else {
+            rows = conversationRepository.findInboxLatest(userId, page);
+        }
+        
+        boolean hasMore = rows.size() > size;
+        List<Conversation> slice = hasMore ? rows.subList(0, size) : rows;
+        List<ConversationDto> conversations = slice.stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
+        String nextCursor = slice.isEmpty() ? null : MessageCursor.of(
+                slice.get(slice.size() - 1).getLastActivityAt(), slice.get(slice.size() - 1).getId()).encode();
+        return new InboxPageDto(conversations, nextCursor, hasMore);
     }
     
+    /**
+     * Marks the message and everything before it in the same conversation as read
+     * by moving the receiver's watermark forward.
+     */
     public void markAsRead(UUID messageId) {
         Message message = messageRepository.findById(messageId)
                 .orElseThrow(() -> new RuntimeException("Message not found"));
         
-        message.setIsRead(true);
-        messageRepository.save(message);
+        markRead(message.getReceiver().getId(), conversationKeyOf(message), MessageCursor.of(message));
     }
     
+    @Transactional(readOnly = true)
     public Long getUnreadCount(UUID userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        return messageRepository.countByReceiverAndIsReadFalse(user);
+        Long cached = unreadCountCache.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
+        return unreadCountCache.get(userId);
     }
     
-    public void markAllAsRead(UUID receiverId) {
-        User receiver = userRepository.findById(receiverId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    /**
+     * Marks everything the user has received so far as read. Each conversation's
+     * watermark stops at its newest committed message, so a message still being
+     * stored while this runs stays unread.
+     */
+    public MessageReadResultDto markAllAsRead(UUID receiverId) {
+        if (!userRepository.existsById(receiverId)) {
+            throw new RuntimeException("User not found");
+        }
+        return markRead(receiverId, null, MessageCursor.end());
+    }
+    
+    /**
+     * Marks the receiver's messages as read up to the newest message the client has
+     * actually shown, given as a page cursor or as that message's id, optionally scoped
+     * to the direct thread with one counterpart or to one case. Messages arriving while
+     * the client renders stay unread. Each call is a single statement regardless of how
+     * many messages or conversations it covers.
+     */
+    public MessageReadResultDto markAsReadUpTo(UUID receiverId, UUID counterpartId, UUID caseId,
+                                               String upTo, UUID upToMessageId) {
+        if (counterpartId != null && caseId != null) {
+            throw new RuntimeException("Specify either counterpartId or caseId, not both");
+        }
+        if ((upTo == null) == (upToMessageId == null)) {
+            throw new RuntimeException("Specify either upTo or upToMessageId");
+        }
+        if (!userRepository.existsById(receiverId)) {
+            throw new RuntimeException("User not found");
+        }
+        MessageCursor bound;
+        if (upToMessageId != null) {
+            Message seen = messageRepository.findById(upToMessageId)
+                    .orElseThrow(() -> new RuntimeException("Message not found"));
+            if (!seen.getReceiver().getId().equals(receiverId) && !seen.getSender().getId().equals(receiverId)) {
+                throw new RuntimeException("Message not found");
+            }
+            bound = MessageCursor.of(seen);
+        } else {
+            bound = MessageCursor.decode(upTo);
+        }
         
-        List<Message> unreadMessages = messageRepository.findUnreadMessagesByReceiver(receiver);
-        for (Message message : unreadMessages) {
-            message.setIsRead(true);
+        String conversationKey = null;
+        if (caseId != null) {
+            conversationKey = ConversationKeys.forCase(caseId);
+        } else if (counterpartId != null) {
+            conversationKey = ConversationKeys.direct(receiverId, counterpartId);
         }
-        messageRepository.saveAll(unreadMessages);
+        return markRead(receiverId, conversationKey, bound);
+    }
+    
+    private MessageReadResultDto markRead(UUID receiverId, String conversationKey, MessageCursor bound) {
+        int updated = advanceWatermark(receiverId, conversationKey, bound);
+        if (updated > 0) {
+            unreadCountCache.adjust(receiverId, -updated);
+        }
+        Long unreadCount = unreadCountCache.get(receiverId);
+        if (updated > 0) {
+            eventPublisher.publishEvent(new MessageEvent(receiverId, null, unreadCount));
+        }
+        return new MessageReadResultDto(updated, unreadCount);
     }
     
     public Long getUnreadMessageCount(UUID userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        return messageRepository.countUnreadMessagesByReceiver(user);
+        return getUnreadCount(userId);
     }
     
     public List<MessageDto> getUnreadMessages(UUID userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
         
-        return messageRepository.findUnreadMessagesByReceiver(user)
+        return messageRepository.findUnreadAfterWatermark(userId)
                 .stream()
-                .map(this::convertToDto)
+                .map(view -> {
+                    MessageDto dto = convertToDto(view);
+                    dto.setIsRead(false);
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
+    
+    private int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+    
+    /**
+     * Turns one over-fetched keyset slice (size + 1 rows) into a page. Backward
+     * slices arrive newest first and are flipped so pages always read oldest first.
+     */
+    private MessagePageDto toPage(List<MessageView> rows, int size, boolean descending) {
+        boolean hasMore = rows.size() > size;
+        List<MessageView> slice = new ArrayList<>(hasMore ? rows.subList(0, size) : rows);
+        if (descending) {
+            Collections.reverse(slice);
+        }
+        
+        List<MessageDto> messages = toDtos(slice);
+        String beforeCursor = slice.isEmpty() ? null : cursorOf(slice.get(0)).encode();
+        String afterCursor = slice.isEmpty() ? null : cursorOf(slice.get(slice.size() - 1)).encode();
+        return new MessagePageDto(messages, beforeCursor, afterCursor, hasMore);
+    }
+    
+    private MessageSyncDto sync(String conversationKey, Long since, Integer limit) {
+        int size = pageSize(limit);
+        long from = since != null ? since : 0L;
+        List<MessageView> rows = messageRepository.findConversationSince(conversationKey, from, PageRequest.of(0, size + 1));
+        
+        boolean hasMore = rows.size() > size;
+        List<MessageView> slice = hasMore ? rows.subList(0, size) : rows;
+        List<MessageReadPositionDto> readPositions = watermarkRepository.findReadPositions(conversationKey).stream()
+                .map(p -> new MessageReadPositionDto(p.getUserId(), p.getLastReadSeq(),
+                        p.getUpdatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)))
                 .collect(Collectors.toList());
+        Long latestSeq = slice.isEmpty() ? from : slice.get(slice.size() - 1).getSeq();
+        return new MessageSyncDto(toDtos(slice), readPositions, latestSeq, hasMore);
+    }
+    
+    // A null conversation key advances every conversation of the user
+    private int advanceWatermark(UUID userId, String conversationKey, MessageCursor bound) {
+        int updated = (int) watermarkRepository.markReadUpTo(userId, conversationKey, bound.getCreatedAt(), bound.getId());
+        if (updated > 0) {
+            if (conversationKey != null) {
+                conversationRepository.refreshUnreadCount(userId, conversationKey);
+            } else {
+                conversationRepository.refreshUnreadCounts(userId);
+            }
+        }
+        return updated;
+    }
+    
+    private void recordInConversations(Message message, UUID senderId, UUID receiverId, UUID caseId) {
+        String content = message.getContent();
+        String preview = content.length() > PREVIEW_LENGTH ? content.substring(0, PREVIEW_LENGTH) : content;
+        conversationRepository.recordMessage(UUID.randomUUID(), senderId, message.getConversationKey(), receiverId, caseId,
+                message.getId(), preview, senderId, message.getCreatedAt(), 0);
+        conversationRepository.recordMessage(UUID.randomUUID(), receiverId, message.getConversationKey(), senderId, caseId,
+                message.getId(), preview, senderId, message.getCreatedAt(), 1);
+    }
+    
+    /**
+     * Records a run of messages from one batch that share a conversation and receiver.
+     * Senders differ only in case threads, so the sender side is recorded per sender.
+     */
+    private void recordBatchInConversations(List<Message> group) {
+        Message last = group.get(group.size() - 1);
+        UUID receiverId = last.getReceiver().getId();
+        UUID caseId = last.getCaseEntity() != null ? last.getCaseEntity().getId() : null;
+        String content = last.getContent();
+        String preview = content.length() > PREVIEW_LENGTH ? content.substring(0, PREVIEW_LENGTH) : content;
+        UUID lastSenderId = last.getSender().getId();
+        
+        Map<UUID, Message> lastBySender = group.stream()
+                .collect(Collectors.toMap(m -> m.getSender().getId(), Function.identity(), (a, b) -> b, LinkedHashMap::new));
+        lastBySender.forEach((senderId, message) -> {
+            String senderContent = message.getContent();
+            String senderPreview = senderContent.length() > PREVIEW_LENGTH ? senderContent.substring(0, PREVIEW_LENGTH) : senderContent;
+            conversationRepository.recordMessage(UUID.randomUUID(), senderId, message.getConversationKey(), receiverId, caseId,
+                    message.getId(), senderPreview, senderId, message.getCreatedAt(), 0);
+        });
+        conversationRepository.recordMessage(UUID.randomUUID(), receiverId, last.getConversationKey(), lastSenderId, caseId,
+                last.getId(), preview, lastSenderId, last.getCreatedAt(), group.size());
+    }
+    
+    private MessageCursor cursorOf(MessageView view) {
+        return MessageCursor.of(view.getCreatedAt(), view.getId());
+    }
+    
+    private String conversationKeyOf(MessageView view) {
+        return view.getConversationKey() != null ? view.getConversationKey()
+                : ConversationKeys.of(view.getSenderId(), view.getReceiverId(), view.getCaseId());
+    }
+    
+    private String conversationKeyOf(Message message) {
+        if (message.getConversationKey() != null) {
+            return message.getConversationKey();
+        }
+        UUID caseId = message.getCaseEntity() != null ? message.getCaseEntity().getId() : null;
+        return ConversationKeys.of(message.getSender().getId(), message.getReceiver().getId(), caseId);
+    }
+    
+    /**
+     * Converts a thread slice, deriving each message's read flag from its receiver's
+     * watermark. All watermarks for the slice come from one query.
+     */
+    private List<MessageDto> toDtos(List<MessageView> messages) {
+        Set<String> keys = messages.stream()
+                .map(this::conversationKeyOf)
+                .collect(Collectors.toSet());
+        Map<String, MessageCursor> watermarks = new HashMap<>();
+        if (!keys.isEmpty()) {
+            for (MessageReadWatermark watermark : watermarkRepository.findByConversationKeyIn(keys)) {
+                watermarks.put(watermark.getConversationKey() + "|" + watermark.getUser().getId(),
+                        MessageCursor.of(watermark.getLastReadAt(), watermark.getLastReadMessageId()));
+            }
+        }
+        
+        List<MessageDto> dtos = new ArrayList<>(messages.size());
+        for (MessageView message : messages) {
+            MessageDto dto = convertToDto(message);
+            MessageCursor watermark = watermarks.get(conversationKeyOf(message) + "|" + message.getReceiverId());
+            dto.setIsRead(watermark != null && !cursorOf(message).isAfter(watermark));
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+    
+    private ConversationDto convertToDto(Conversation conversation) {
+        ConversationDto dto = new ConversationDto();
+        dto.setId(conversation.getId());
+        dto.setConversationKey(conversation.getConversationKey());
+        dto.setCounterpartId(conversation.getCounterpart().getId());
+        dto.setCounterpartName(conversation.getCounterpart().getName());
+        dto.setLastMessageId(conversation.getLastMessageId());
+        dto.setLastMessagePreview(conversation.getLastMessagePreview());
+        dto.setLastSenderId(conversation.getLastSenderId());
+        dto.setLastActivityAt(conversation.getLastActivityAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        dto.setUnreadCount(conversation.getUnreadCount());
+        
+        if (conversation.getCaseEntity() != null) {
+            dto.setCaseId(conversation.getCaseEntity().getId());
+            dto.setCaseTitle(conversation.getCaseEntity().getTitle());
+        }
+        
+        return dto;
+    }
+    
+    private MessageDto convertToDto(MessageView view) {
+        MessageDto dto = new MessageDto();
+        dto.setId(view.getId());
+        dto.setSenderId(view.getSenderId());
+        dto.setReceiverId(view.getReceiverId());
+        dto.setCaseId(view.getCaseId());
+        dto.setContent(view.getContent());
+        dto.setSenderName(view.getSenderName());
+        dto.setReceiverName(view.getReceiverName());
+        dto.setCreatedAt(view.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        dto.setSeq(view.getSeq());
+        return dto;
+    }
+    
+    // Builds the DTO from ids alone, for messages whose user references are not loaded
+    private MessageDto convertToDto(Message message, UUID senderId, UUID receiverId, UUID caseId, Map<UUID, String> names) {
+        MessageDto dto = new MessageDto();
+        dto.setId(message.getId());
+        dto.setSenderId(senderId);
+        dto.setReceiverId(receiverId);
+        dto.setContent(message.getContent());
+        dto.setIsRead(false);
+        dto.setSenderName(names.get(senderId));
+        dto.setReceiverName(names.get(receiverId));
+        dto.setCreatedAt(message.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        dto.setCaseId(caseId);
+        dto.setSeq(message.getSeq());
+        return dto;
     }
     
     private MessageDto convertToDto(Message message) {
@@ -118,10 +635,11 @@ public class MessageService {
         dto.setSenderId(message.getSender().getId());
         dto.setReceiverId(message.getReceiver().getId());
         dto.setContent(message.getContent());
-        dto.setIsRead(message.getIsRead());
+        dto.setIsRead(false);
         dto.setSenderName(message.getSender().getName());
         dto.setReceiverName(message.getReceiver().getName());
         dto.setCreatedAt(message.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        dto.setSeq(message.getSeq());
         
         if (message.getCaseEntity() != null) {
             dto.setCaseId(message.getCaseEntity().getId());
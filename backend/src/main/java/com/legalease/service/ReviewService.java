@@ -0,0 +1,127 @@
+package com.legalease.service;
+
+import com.legalease.dto.LawyerRatingSummaryDto;
+import com.legalease.dto.ReviewDto;
+import com.legalease.dto.ReviewPageDto;
+import com.legalease.dto.ReviewRequest;
+import com.legalease.entity.Case;
+import com.legalease.entity.CaseStatus;
+import com.legalease.entity.LawyerRatingSummary;
+import com.legalease.entity.Review;
+import com.legalease.event.LawyerChangedEvent;
+import com.legalease.repository.CaseRepository;
+import com.legalease.repository.LawyerRatingSummaryRepository;
+import com.legalease.repository.ReviewRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.format.DateTimeFormatter;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class ReviewService {
+    
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    // A case can be reviewed once the work on it is over
+    private static final Set<CaseStatus> REVIEWABLE = EnumSet.of(CaseStatus.COMPLETED, CaseStatus.CLOSED);
+    
+    private final ReviewRepository reviewRepository;
+    private final LawyerRatingSummaryRepository summaryRepository;
+    private final CaseRepository caseRepository;
+    private final LawyerProfileCache profileCache;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    /**
+     * Creates the case's review or changes it, and folds the difference into the
+     * lawyer's rating summary in the same transaction. The summary is only ever
+     * adjusted by deltas, so no query aggregates the reviews table.
+     */
+    @Transactional
+    public ReviewDto submitReview(ReviewRequest request) {
+        Case caseEntity = caseRepository.findById(request.getCaseId())
+                .orElseThrow(() -> new RuntimeException("Case not found"));
+        if (!caseEntity.getClient().getId().equals(request.getClientId())) {
+            throw new RuntimeException("Only the client on a case can review it");
+        }
+        if (!REVIEWABLE.contains(caseEntity.getStatus())) {
+            throw new RuntimeException("Case must be completed or closed before it can be reviewed");
+        }
+        UUID lawyerId = caseEntity.getLawyer().getId();
+        int rating = request.getRating();
+        
+        Review review = reviewRepository.findByCaseIdForUpdate(caseEntity.getId()).orElse(null);
+        long[] stars = new long[5];
+        if (review == null) {
+            review = new Review();
+            review.setCaseEntity(caseEntity);
+            review.setLawyer(caseEntity.getLawyer());
+            review.setClient(caseEntity.getClient());
+            stars[rating - 1]++;
+            applyToSummary(lawyerId, 1, rating, stars);
+        } else {
+            int previous = review.getRating();
+            stars[previous - 1]--;
+            stars[rating - 1]++;
+            applyToSummary(lawyerId, 0, rating - previous, stars);
+        }
+        review.setRating(rating);
+        review.setComment(request.getComment());
+        Review saved = reviewRepository.saveAndFlush(review);
+        
+        // The rating is part of the lawyer's search row and profile
+        profileCache.evict(lawyerId);
+        eventPublisher.publishEvent(new LawyerChangedEvent(lawyerId));
+        return convertToDto(saved);
+    }
+    
+    @Transactional(readOnly = true)
+    public ReviewPageDto getReviewsByLawyer(UUID lawyerId, Integer page, Integer limit) {
+        int size = limit == null || limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        int pageNumber = page != null && page > 0 ? page : 0;
+        
+        Slice<Review> rows = reviewRepository.findByLawyer(lawyerId, PageRequest.of(pageNumber, size));
+        return new ReviewPageDto(rows.stream().map(this::convertToDto).toList(), pageNumber, rows.hasNext());
+    }
+    
+    @Transactional(readOnly = true)
+    public LawyerRatingSummaryDto getRatingSummary(UUID lawyerId) {
+        return summaryRepository.findById(lawyerId)
+                .map(this::convertToDto)
+                .orElseGet(() -> new LawyerRatingSummaryDto(lawyerId, 0L, null, List.of(0L, 0L, 0L, 0L, 0L)));
+    }
+    
+    private void applyToSummary(UUID lawyerId, long countDelta, long sumDelta, long[] stars) {
+        summaryRepository.apply(lawyerId, countDelta, sumDelta, stars[0], stars[1], stars[2], stars[3], stars[4]);
+    }
+    
+    private ReviewDto convertToDto(Review review) {
+        ReviewDto dto = new ReviewDto();
+        dto.setId(review.getId());
+        dto.setCaseId(review.getCaseEntity().getId());
+        dto.setLawyerId(review.getLawyer().getId());
+        dto.setClientId(review.getClient().getId());
+        dto.setClientName(review.getClient().getName());
+        dto.setRating(review.getRating());
+        dto.setComment(review.getComment());
+        dto.setCreatedAt(review.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        dto.setUpdatedAt(review.getUpdatedAt() != null ?
+                review.getUpdatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null);
+        return dto;
+    }
+    
+    private LawyerRatingSummaryDto convertToDto(LawyerRatingSummary summary) {
+        return new LawyerRatingSummaryDto(summary.getLawyerId(), summary.getReviewCount(), summary.getAverageRating(),
+                List.of(summary.getStars1(), summary.getStars2(), summary.getStars3(), summary.getStars4(),
+                        summary.getStars5()));
+    }
+}
@@ -0,0 +1,185 @@
+package com.legalease.service;
+
+import com.legalease.repository.MessageReadWatermarkRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user unread message counters kept in memory so polling and push clients do not
+ * hit the database. Counters are loaded lazily from the read watermarks and updated
+ * by MessageService once its transaction commits; idle users are evicted and a
+ * periodic pass repairs any drift left by races between loads and concurrent writes.
+ */
+@Slf4j
+@Component
+public class UnreadCountCache {
+
+    private static final int RECONCILE_BATCH = 1000;
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final MessageReadWatermarkRepository watermarkRepository;
+    private final int maxEntries;
+    private final long idleNanos;
+
+    public UnreadCountCache(MessageReadWatermarkRepository watermarkRepository,
+                            @Value("${app.messaging.unread-cache.max-entries:100000}") int maxEntries,
+                            @Value("${app.messaging.unread-cache.idle-ms:900000}") long idleMs) {
+        this.watermarkRepository = watermarkRepository;
+        this.maxEntries = maxEntries;
+        this.idleNanos = idleMs * 1_000_000L;
+    }
+
+    public Long getIfPresent(UUID userId) {
+        Entry entry = entries.get(userId);
+        return entry != null ? entry.touch() : null;
+    }
+
+    public long get(UUID userId) {
+        PendingDeltas pending = currentPending();
+        Long own = pending != null ? pending.deltas.get(userId) : null;
+        if (own != null) {
+            // This transaction changed the count: it sees its own change, nobody else sees it before commit
+            Entry entry = entries.get(userId);
+            return entry != null ? Math.max(0, entry.touch() + own) : watermarkRepository.countUnread(userId);
+        }
+        Entry entry = entries.get(userId);
+        if (entry != null) {
+            return entry.touch();
+        }
+        long count = watermarkRepository.countUnread(userId);
+        // When full, serve from the database until the next sweep makes room
+        if (entries.size() < maxEntries) {
+            entries.putIfAbsent(userId, new Entry(count));
+        }
+        return count;
+    }
+
+    /**
+     * Records a change made by the current transaction. The counter only moves once the
+     * transaction commits, so other threads never see uncommitted counts and a rollback
+     * leaves nothing to undo. Outside a transaction the change applies at once. Users
+     * that are not cached are left alone: their next load reads the committed count.
+     */
+    public void adjust(UUID userId, long delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(userId, delta);
+            return;
+        }
+        PendingDeltas pending = currentPending();
+        if (pending == null) {
+            pending = new PendingDeltas();
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.deltas.merge(userId, delta, Long::sum);
+    }
+
+    private void apply(UUID userId, long delta) {
+        Entry entry = entries.get(userId);
+        if (entry != null) {
+            entry.count.updateAndGet(current -> Math.max(0, current + delta));
+        }
+    }
+
+    // This cache's deltas in the current transaction; synchronizations are suspended with it, unlike bound resources
+    private PendingDeltas currentPending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingDeltas pending && pending.owner() == this) {
+                return pending;
+            }
+        }
+        return null;
+    }
+
+    @Scheduled(fixedDelayString = "${app.messaging.unread-cache.sweep-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        entries.entrySet().removeIf(e -> now - e.getValue().lastAccess > idleNanos);
+
+        int overflow = entries.size() - maxEntries;
+        if (overflow > 0) {
+            entries.entrySet().stream()
+                    .sorted(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                    .limit(overflow)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(entries::remove);
+        }
+    }
+
+    /**
+     * Compares each cached counter with the database and repairs it, counting
+     * RECONCILE_BATCH users per query. A counter that changed while its batch was being
+     * counted is skipped and checked on the next run.
+     */
+    @Scheduled(fixedDelayString = "${app.messaging.unread-cache.reconcile-ms:300000}")
+    public void reconcile() {
+        int repaired = 0;
+        List<UUID> userIds = new ArrayList<>(entries.keySet());
+        for (int from = 0; from < userIds.size(); from += RECONCILE_BATCH) {
+            List<UUID> batch = userIds.subList(from, Math.min(userIds.size(), from + RECONCILE_BATCH));
+            Map<UUID, Long> snapshot = new HashMap<>();
+            for (UUID userId : batch) {
+                Entry entry = entries.get(userId);
+                if (entry != null) {
+                    snapshot.put(userId, entry.count.get());
+                }
+            }
+            Map<UUID, Long> actual = new HashMap<>();
+            watermarkRepository.countUnreadByUser(snapshot.keySet()).forEach(c -> actual.put(c.getUserId(), c.getUnread()));
+            for (Map.Entry<UUID, Long> e : snapshot.entrySet()) {
+                Entry entry = entries.get(e.getKey());
+                long expected = actual.getOrDefault(e.getKey(), 0L);
+                if (entry != null && e.getValue() != expected && entry.count.compareAndSet(e.getValue(), expected)) {
+                    repaired++;
+                }
+            }
+        }
+        if (repaired > 0) {
+            log.info("Repaired {} drifted unread counters", repaired);
+        }
+    }
+
+    private final class PendingDeltas implements TransactionSynchronization {
+        private final Map<UUID, Long> deltas = new HashMap<>();
+
+        private UnreadCountCache owner() {
+            return UnreadCountCache.this;
+        }
+
+        @Override
+        public void afterCommit() {
+            deltas.forEach(UnreadCountCache.this::apply);
+        }
+    }
+
+    private static final class Entry {
+        private final AtomicLong count;
+        private volatile long lastAccess;
+
+        private Entry(long count) {
+            this.count = new AtomicLong(count);
+            this.lastAccess = System.nanoTime();
+        }
+
+        private long touch() {
+            lastAccess = System.nanoTime();
+            return count.get();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.legalease.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A stored object ready to be sent. Objects that sit on local disk for good expose their
+ * file, so downloads can go through sendfile; remote ones are read a range at a time.
+ * Whoever reads the content closes it once the response is complete.
+ */
+public interface DocumentContent extends Closeable {
+
+    long getLength();
+
+    // The object as a local file, or null when it is only reachable through open()
+    Path getLocalFile();
+
+    // A stream over count bytes starting at start; the caller reads no further than that
+    InputStream open(long start, long count) throws IOException;
+
+    // Releases whatever reading the content holds on to; most content holds nothing
+    @Override
+    default void close() throws IOException {
+    }
+
+    static DocumentContent ofFile(Path file) throws IOException {
+        long length = Files.size(file);
+        return new DocumentContent() {
+            @Override
+            public long getLength() {
+                return length;
+            }
+
+            @Override
+            public Path getLocalFile() {
+                return file;
+            }
+
+            @Override
+            public InputStream open(long start, long count) throws IOException {
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                channel.position(start);
+                return Channels.newInputStream(channel);
+            }
+        };
+    }
+
+    /**
+     * Content of a file that is already open. It stays readable through the channel even
+     * if the file is deleted meanwhile, which is why no file name is exposed: sendfile
+     * would open the name again. Closing the content closes the channel.
+     */
+    static DocumentContent ofChannel(FileChannel channel) throws IOException {
+        long length = channel.size();
+        return new DocumentContent() {
+            @Override
+            public long getLength() {
+                return length;
+            }
+
+            @Override
+            public Path getLocalFile() {
+                return null;
+            }
+
+            @Override
+            public InputStream open(long start, long count) {
+                long end = Math.min(length, start + count);
+                return new InputStream() {
+                    private long position = start;
+
+                    @Override
+                    public int read() throws IOException {
+                        byte[] one = new byte[1];
+                        return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+                    }
+
+                    @Override
+                    public int read(byte[] b, int off, int len) throws IOException {
+                        if (position >= end) {
+                            return -1;
+                        }
+                        // Positional reads, so the channel's own position is never shared
+                        int read = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, end - position)), position);
+                        if (read > 0) {
+                            position += read;
+                        }
+                        return read;
+                    }
+                };
+            }
+
+            @Override
+            public void close() throws IOException {
+                channel.close();
+            }
+        };
+    }
+}
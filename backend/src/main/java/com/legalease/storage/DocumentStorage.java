@@ -0,0 +1,29 @@
+package com.legalease.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Where case document bytes are kept. Keys are relative, slash-separated names such as
+ * case-docs/{caseId}/{file} or blobs/ab/cd/{sha256}[.gzip]; each backend maps them onto a
+ * directory, a bucket, or both. Objects are written once and never modified in place.
+ *
+ * The backend in use is chosen by app.storage.backend, see StorageConfig.
+ */
+public interface DocumentStorage {
+
+    /**
+     * Stores a complete local file under the key, replacing any earlier object. The
+     * source is consumed: it no longer exists when this returns normally.
+     */
+    void put(String key, Path source) throws IOException;
+
+    boolean exists(String key) throws IOException;
+
+    /**
+     * Opens the object for reading. Throws NoSuchFileException when there is none.
+     */
+    DocumentContent read(String key) throws IOException;
+
+    void delete(String key) throws IOException;
+}
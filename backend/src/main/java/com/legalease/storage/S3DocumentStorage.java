@@ -0,0 +1,117 @@
+package com.legalease.storage;
+
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Keeps objects in a bucket of any S3-compatible service (AWS S3, MinIO, Ceph, ...).
+ * Reads fetch only the requested byte range, so a download never needs the object
+ * on local disk; put in front of this a TieredDocumentStorage to keep hot ones local.
+ */
+public class S3DocumentStorage implements DocumentStorage, AutoCloseable {
+
+    private final S3Client s3;
+    private final String bucket;
+    private final String prefix;
+
+    public S3DocumentStorage(S3Client s3, String bucket, String prefix) {
+        this.s3 = s3;
+        this.bucket = bucket;
+        String p = prefix == null ? "" : prefix;
+        this.prefix = p.isEmpty() || p.endsWith("/") ? p : p + "/";
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        try {
+            s3.putObject(PutObjectRequest.builder().bucket(bucket).key(prefix + key).build(),
+                    RequestBody.fromFile(source));
+        } catch (SdkException ex) {
+            throw new IOException("Could not store " + key + ": " + ex.getMessage(), ex);
+        }
+        Files.delete(source);
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        return length(key) >= 0;
+    }
+
+    @Override
+    public DocumentContent read(String key) throws IOException {
+        long length = length(key);
+        if (length < 0) {
+            throw new NoSuchFileException(key);
+        }
+        return new DocumentContent() {
+            @Override
+            public long getLength() {
+                return length;
+            }
+
+            @Override
+            public Path getLocalFile() {
+                return null;
+            }
+
+            @Override
+            public InputStream open(long start, long count) throws IOException {
+                if (count <= 0) {
+                    return InputStream.nullInputStream();
+                }
+                try {
+                    return s3.getObject(GetObjectRequest.builder().bucket(bucket).key(prefix + key)
+                            .range("bytes=" + start + "-" + (start + count - 1)).build());
+                } catch (NoSuchKeyException ex) {
+                    throw new NoSuchFileException(key);
+                } catch (SdkException ex) {
+                    throw new IOException("Could not read " + key + ": " + ex.getMessage(), ex);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            s3.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(prefix + key).build());
+        } catch (SdkException ex) {
+            throw new IOException("Could not delete " + key + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        s3.close();
+    }
+
+    // The object's size, or -1 when there is none
+    private long length(String key) throws IOException {
+        try {
+            return s3.headObject(HeadObjectRequest.builder().bucket(bucket).key(prefix + key).build()).contentLength();
+        } catch (NoSuchKeyException ex) {
+            return -1;
+        } catch (S3Exception ex) {
+            // HEAD responses carry no body, so a missing key may surface as a bare 404
+            if (ex.statusCode() == 404) {
+                return -1;
+            }
+            throw new IOException("Could not look up " + key + ": " + ex.getMessage(), ex);
+        } catch (SdkException ex) {
+            throw new IOException("Could not look up " + key + ": " + ex.getMessage(), ex);
+        }
+    }
+}
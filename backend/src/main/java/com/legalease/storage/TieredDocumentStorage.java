@@ -0,0 +1,210 @@
+package com.legalease.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * A cold backend (usually S3) with a size-bounded hot tier on local disk in front of
+ * it. Writes go to both. Reads are served from the hot tier; a miss copies the whole
+ * object down from the cold tier first, so repeat downloads of active case files stay
+ * local. The least recently read objects are evicted once the hot tier holds more than
+ * maxHotBytes. Hot objects are served from a channel opened by read(), not by name, so
+ * eviction never pulls a file from under a download.
+ *
+ * The hot tier is only a cache: losing it, or any file in it, costs a refetch.
+ */
+@Slf4j
+public class TieredDocumentStorage implements DocumentStorage, AutoCloseable {
+
+    private final LocalDocumentStorage hot;
+    private final DocumentStorage cold;
+    private final long maxHotBytes;
+
+    // Access-ordered: iteration starts at the least recently read key
+    private final LinkedHashMap<String, Long> hotEntries = new LinkedHashMap<>(256, 0.75f, true);
+    private long hotBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public TieredDocumentStorage(LocalDocumentStorage hot, DocumentStorage cold, long maxHotBytes) throws IOException {
+        this.hot = hot;
+        this.cold = cold;
+        this.maxHotBytes = maxHotBytes;
+        loadHotEntries();
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        Path hotCopy = hot.newTempFile();
+        try {
+            Files.copy(source, hotCopy);
+            long size = Files.size(hotCopy);
+            cold.put(key, source);
+            hot.put(key, hotCopy);
+            admit(key, size);
+        } finally {
+            Files.deleteIfExists(hotCopy);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        return isHot(key) || cold.exists(key);
+    }
+
+    /**
+     * Hot objects are opened while they are known to be in the hot tier, and a fetched
+     * one before it is renamed into place, so an eviction that deletes the file while it
+     * is being served cannot cut the download short.
+     */
+    @Override
+    public DocumentContent read(String key) throws IOException {
+        DocumentContent content = openHot(key);
+        if (content != null) {
+            hits.incrementAndGet();
+            return content;
+        }
+        misses.incrementAndGet();
+        DocumentContent remote = cold.read(key);
+        Path temp = hot.newTempFile();
+        try {
+            try (InputStream in = remote.open(0, remote.getLength())) {
+                Files.copy(in, temp);
+            }
+            FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ);
+            try {
+                hot.put(key, temp);
+                admit(key, remote.getLength());
+                return DocumentContent.ofChannel(channel);
+            } catch (IOException | RuntimeException ex) {
+                channel.close();
+                throw ex;
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        cold.delete(key);
+        forget(key);
+        hot.delete(key);
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public synchronized long getHotBytes() {
+        return hotBytes;
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (cold instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private synchronized boolean isHot(String key) {
+        return hotEntries.get(key) != null;
+    }
+
+    // The hot copy, opened under the lock that eviction takes to drop it, or null when there is none
+    private synchronized DocumentContent openHot(String key) throws IOException {
+        if (hotEntries.get(key) == null) {
+            return null;
+        }
+        try {
+            return DocumentContent.ofChannel(FileChannel.open(hot.resolve(key), StandardOpenOption.READ));
+        } catch (NoSuchFileException ex) {
+            // Removed from disk behind our back; fetch it again
+            forget(key);
+            return null;
+        }
+    }
+
+    private synchronized void forget(String key) {
+        Long size = hotEntries.remove(key);
+        if (size != null) {
+            hotBytes -= size;
+        }
+    }
+
+    // Records a newly cached object and evicts the least recently read ones beyond the limit
+    private void admit(String key, long size) {
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            Long previous = hotEntries.put(key, size);
+            hotBytes += size - (previous != null ? previous : 0);
+            Iterator<Map.Entry<String, Long>> it = hotEntries.entrySet().iterator();
+            while (hotBytes > maxHotBytes && it.hasNext()) {
+                Map.Entry<String, Long> eldest = it.next();
+                if (eldest.getKey().equals(key)) {
+                    // Never the object that is about to be served
+                    continue;
+                }
+                hotBytes -= eldest.getValue();
+                evicted.add(eldest.getKey());
+                it.remove();
+            }
+        }
+        for (String victim : evicted) {
+            try {
+                hot.delete(victim);
+            } catch (IOException ex) {
+                log.warn("Could not evict {} from the hot tier: {}", victim, ex.getMessage());
+            }
+        }
+    }
+
+    // Picks up what an earlier run left in the hot tier, oldest first, so it is evicted first
+    private void loadHotEntries() throws IOException {
+        Path root = hot.getRoot();
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(Files::isRegularFile)
+                    .filter(p -> !root.relativize(p).startsWith(".tmp"))
+                    .sorted(Comparator.comparing(TieredDocumentStorage::lastAccess))
+                    .toList();
+        }
+        for (Path file : files) {
+            admit(root.relativize(file).toString().replace('\\', '/'), Files.size(file));
+        }
+        log.info("Hot document tier holds {} objects, {} bytes", hotEntries.size(), hotBytes);
+    }
+
+    private static long lastAccess(Path file) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            return Math.max(attrs.lastAccessTime().toMillis(), attrs.lastModifiedTime().toMillis());
+        } catch (IOException ex) {
+            return 0;
+        }
+    }
+}
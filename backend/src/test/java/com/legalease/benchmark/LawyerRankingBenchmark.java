@@ -0,0 +1,93 @@
+package com.legalease.benchmark;
+
+import com.legalease.dto.LawyerSearchDto;
+import com.legalease.service.LawyerSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ranking latency of LawyerSearchIndex over a synthetic directory. SampleTime mode
+ * reports the latency distribution, so read the p0.99 rows for each size.
+ *
+ * Run from the backend directory with:
+ * mvn -B test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.legalease.benchmark.LawyerRankingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LawyerRankingBenchmark {
+
+    private static final String[] FIRST_NAMES = {
+            "Aarav", "Priya", "Rohan", "Ananya", "Vikram", "Meera", "Arjun", "Kavya", "Rahul", "Sneha",
+            "John", "Maria", "David", "Sofia", "James", "Elena", "Robert", "Chloe", "Michael", "Zoe"
+    };
+    private static final String[] LAST_NAMES = {
+            "Sharma", "Patel", "Iyer", "Reddy", "Gupta", "Nair", "Mehta", "Khan", "Singh", "Das",
+            "Smith", "Garcia", "Brown", "Müller", "Johnson", "Rossi", "Williams", "Dubois", "Jones", "Novak"
+    };
+    private static final String[] SPECIALIZATIONS = {
+            "Family Law", "Criminal Defense", "Corporate Law", "Intellectual Property", "Real Estate",
+            "Immigration", "Tax Law", "Employment Law", "Personal Injury", "Civil Litigation"
+    };
+    private static final List<String> QUERIES = List.of(
+            "family", "criminal defence", "smoth", "priya sharma", "tax", "intelectual property", "muller real estate");
+
+    @Param({"10000", "100000"})
+    public int lawyers;
+
+    @Param({"20"})
+    public int limit;
+
+    private LawyerSearchIndex index;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        index = new LawyerSearchIndex(0.5, 1.25);
+        for (int i = 0; i < lawyers; i++) {
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            String specialization = SPECIALIZATIONS[random.nextInt(SPECIALIZATIONS.length)];
+            int years = 1 + random.nextInt(30);
+            index.put(new LawyerSearchDto(UUID.randomUUID(), name, "lawyer" + i + "@example.com", specialization,
+                    years + " years", random.nextInt(3) == 0, BigDecimal.valueOf(500 + random.nextInt(5000)),
+                    null, null, years, null, null, null, 0L));
+        }
+    }
+
+    @Benchmark
+    public void rank(Blackhole blackhole) {
+        String query = QUERIES.get(next++ % QUERIES.size());
+        blackhole.consume(index.search(query, limit));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LawyerRankingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
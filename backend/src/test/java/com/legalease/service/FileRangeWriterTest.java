@@ -0,0 +1,246 @@
+package com.legalease.service;
+
+import com.legalease.storage.DocumentContent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Range, If-Range and conditional handling of document downloads, for files on
+ * local disk, remote content and the sendfile hand-off, and Accept-Encoding parsing.
+ */
+class FileRangeWriterTest {
+
+    private static final String BODY = "0123456789";
+    private static final String ETAG = "\"doc-1\"";
+    private static final long LAST_MODIFIED = 1_700_000_000_123L;
+
+    @TempDir
+    Path directory;
+
+    private final FileRangeWriter writer = new FileRangeWriter(true);
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private DocumentContent file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        request = new MockHttpServletRequest("GET", "/api/documents/1/content");
+        response = new MockHttpServletResponse();
+        Path path = directory.resolve("doc.txt");
+        Files.writeString(path, BODY);
+        file = DocumentContent.ofFile(path);
+    }
+
+    @Test
+    void wholeFileWithoutRange() throws IOException {
+        write(file);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(BODY, response.getContentAsString());
+        assertEquals(10, response.getContentLengthLong());
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(ETAG, response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void singleRangeIsPartialContent() throws IOException {
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        write(file);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 2-5/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("2345", response.getContentAsString());
+        assertEquals(4, response.getContentLengthLong());
+    }
+
+    @Test
+    void suffixAndOpenEndedRanges() throws IOException {
+        request.addHeader(HttpHeaders.RANGE, "bytes=-3");
+        write(file);
+        assertEquals("bytes 7-9/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("789", response.getContentAsString());
+
+        setUp();
+        request.addHeader(HttpHeaders.RANGE, "bytes=8-100");
+        write(file);
+        assertEquals("bytes 8-9/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("89", response.getContentAsString());
+    }
+
+    @Test
+    void rangePastTheEndIsNotSatisfiable() throws IOException {
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-20");
+        write(file);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("", response.getContentAsString());
+    }
+
+    @Test
+    void multipleOrMalformedRangesGetTheWholeFile() throws IOException {
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-1,4-5");
+        write(file);
+        assertEquals(200, response.getStatus());
+        assertEquals(BODY, response.getContentAsString());
+
+        setUp();
+        request.addHeader(HttpHeaders.RANGE, "pages=1");
+        write(file);
+        assertEquals(200, response.getStatus());
+        assertEquals(BODY, response.getContentAsString());
+    }
+
+    @Test
+    void ifRangeHonoursTheRangeOnlyForTheCurrentRepresentation() throws IOException {
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-0");
+        request.addHeader(HttpHeaders.IF_RANGE, ETAG);
+        write(file);
+        assertEquals(206, response.getStatus());
+
+        setUp();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-0");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"doc-0\"");
+        write(file);
+        assertEquals(200, response.getStatus());
+        assertEquals(BODY, response.getContentAsString());
+
+        setUp();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-0");
+        request.addHeader(HttpHeaders.IF_RANGE, "W/" + ETAG);
+        write(file);
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    void ifRangeDateMatchesLastModifiedToTheSecond() throws IOException {
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-0");
+        request.addHeader(HttpHeaders.IF_RANGE, httpDate(LAST_MODIFIED));
+        write(file);
+        assertEquals(206, response.getStatus());
+
+        setUp();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-0");
+        request.addHeader(HttpHeaders.IF_RANGE, httpDate(LAST_MODIFIED - 1000));
+        write(file);
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    void matchingEtagIsNotModified() throws IOException {
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+        write(file);
+
+        assertEquals(304, response.getStatus());
+        assertEquals("", response.getContentAsString());
+    }
+
+    @Test
+    void headSendsHeadersOnly() throws IOException {
+        request.setMethod("HEAD");
+        write(file);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(10, response.getContentLengthLong());
+        assertEquals("", response.getContentAsString());
+    }
+
+    @Test
+    void sendfileGetsTheRangeInsteadOfABody() throws IOException {
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        write(file);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(2L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(6L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(directory.resolve("doc.txt").toAbsolutePath().toString(),
+                request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals("", response.getContentAsString());
+    }
+
+    @Test
+    void remoteContentIsReadForTheRangeOnly() throws IOException {
+        request.addHeader(HttpHeaders.RANGE, "bytes=3-4");
+        write(remote(BODY));
+
+        assertEquals(206, response.getStatus());
+        assertEquals("34", response.getContentAsString());
+    }
+
+    @Test
+    void contentEncodingIsSentAsIs() throws IOException {
+        new FileRangeWriter(false).write(request, response, file, "text/plain", "gzip", "doc.txt", ETAG, LAST_MODIFIED);
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(BODY, response.getContentAsString());
+    }
+
+    @Test
+    void acceptsEncodingFollowsQualityValues() {
+        assertFalse(accepts(null));
+        assertTrue(accepts("gzip"));
+        assertTrue(accepts("br, GZIP;q=0.5"));
+        assertTrue(accepts("x-gzip"));
+        assertFalse(accepts("gzip;q=0"));
+        assertFalse(accepts("gzip;q=0.0, *"));
+        assertTrue(accepts("br, *;q=0.1"));
+        assertFalse(accepts("br, *;q=0"));
+        assertFalse(accepts("gzip;q=abc"));
+        assertFalse(accepts("deflate, br"));
+    }
+
+    private void write(DocumentContent content) throws IOException {
+        writer.write(request, response, content, "text/plain", null, "doc.txt", ETAG, LAST_MODIFIED);
+    }
+
+    private boolean accepts(String header) {
+        MockHttpServletRequest encodingRequest = new MockHttpServletRequest();
+        if (header != null) {
+            encodingRequest.addHeader(HttpHeaders.ACCEPT_ENCODING, header);
+        }
+        return FileRangeWriter.acceptsEncoding(encodingRequest, "gzip");
+    }
+
+    private static String httpDate(long millis) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(millis).atZone(ZoneOffset.UTC));
+    }
+
+    private static DocumentContent remote(String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        return new DocumentContent() {
+            @Override
+            public long getLength() {
+                return bytes.length;
+            }
+
+            @Override
+            public Path getLocalFile() {
+                return null;
+            }
+
+            @Override
+            public InputStream open(long start, long count) {
+                return new ByteArrayInputStream(bytes, (int) start, (int) count);
+            }
+        };
+    }
+}
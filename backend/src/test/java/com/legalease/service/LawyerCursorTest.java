@@ -0,0 +1,59 @@
+package com.legalease.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round trips of the opaque lawyer listing cursor, including sort values that
+ * contain the separator.
+ */
+class LawyerCursorTest {
+
+    @Test
+    void encodeDecodeRoundTrip() {
+        UUID id = UUID.randomUUID();
+
+        LawyerCursor decoded = LawyerCursor.decode(LawyerCursor.of("rate", new BigDecimal("1250.50"), id).encode());
+
+        assertEquals("rate", decoded.getSort());
+        assertEquals("1250.50", decoded.getValue());
+        assertEquals(id, decoded.getId());
+    }
+
+    @Test
+    void valueMayContainTheSeparator() {
+        UUID id = UUID.randomUUID();
+
+        LawyerCursor decoded = LawyerCursor.decode(LawyerCursor.of("name", "Smith | Partners|", id).encode());
+
+        assertEquals("name", decoded.getSort());
+        assertEquals("Smith | Partners|", decoded.getValue());
+        assertEquals(id, decoded.getId());
+    }
+
+    @Test
+    void nonAsciiValuesRoundTripAndStayUrlSafe() {
+        String encoded = LawyerCursor.of("name", "Müller Ñúñez", UUID.randomUUID()).encode();
+
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"));
+        assertEquals("Müller Ñúñez", LawyerCursor.decode(encoded).getValue());
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        assertThrows(RuntimeException.class, () -> LawyerCursor.decode("%%%"));
+        String noSeparator = Base64.getUrlEncoder().encodeToString("rate".getBytes(StandardCharsets.UTF_8));
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> LawyerCursor.decode(noSeparator));
+        assertEquals("Invalid cursor", ex.getMessage());
+        String badId = Base64.getUrlEncoder().encodeToString("rate|10|not-a-uuid".getBytes(StandardCharsets.UTF_8));
+        assertThrows(RuntimeException.class, () -> LawyerCursor.decode(badId));
+    }
+}
@@ -0,0 +1,130 @@
+package com.legalease.service;
+
+import com.legalease.dto.LawyerDistanceDto;
+import com.legalease.dto.LawyerSearchDto;
+import com.legalease.event.LawyerChangedEvent;
+import com.legalease.repository.LawyerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Radius search over the lawyer grid where cells wrap or stop: across the
+ * antimeridian, at the poles and on cell boundaries.
+ */
+class LawyerGeoIndexTest {
+
+    private final LawyerRepository lawyerRepository = mock(LawyerRepository.class);
+    private final List<LawyerSearchDto> lawyers = new ArrayList<>();
+    private LawyerGeoIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(lawyerRepository.findAllSearchDtos()).thenReturn(lawyers);
+        index = new LawyerGeoIndex(lawyerRepository, 0.25, 25, 500);
+    }
+
+    @Test
+    void radiusReachesAcrossTheAntimeridian() {
+        lawyer("Fiji East", -17.7, 179.95);
+        lawyer("Fiji West", -17.7, -179.95);
+        lawyer("Far", -17.7, 170.0);
+        index.rebuild();
+
+        assertEquals(List.of("Fiji West", "Fiji East"), names(index.nearby(-17.7, -179.99, 50, 10)));
+        assertEquals(List.of("Fiji East", "Fiji West"), names(index.nearby(-17.7, 179.99, 50, 10)));
+    }
+
+    @Test
+    void radiusOverAPoleCoversEveryLongitude() {
+        lawyer("Across the pole", 89.9, 0.0);
+        index.rebuild();
+
+        // About 22 km away over the pole, though 180 degrees of longitude apart
+        List<LawyerDistanceDto> hits = index.nearby(89.9, 180.0, 30, 10);
+        assertEquals(List.of("Across the pole"), names(hits));
+        assertTrue(hits.get(0).getDistanceKm() < 23);
+        assertEquals(1, index.nearby(90.0, 0.0, 15, 10).size());
+    }
+
+    @Test
+    void neighbouringCellsAreSearchedAtCellBoundaries() {
+        lawyer("North of the line", 10.2501, 20.0);
+        lawyer("East of the line", 10.2, 20.2501);
+        index.rebuild();
+
+        assertEquals(List.of("North of the line"), names(index.nearby(10.2499, 20.0, 1, 10)));
+        assertEquals(List.of("East of the line"), names(index.nearby(10.2, 20.2499, 1, 10)));
+    }
+
+    @Test
+    void lawyersInVisitedCellsOutsideTheRadiusAreLeftOut() {
+        lawyer("Inside", 0.0, 0.0);
+        lawyer("Corner of the box", 0.2, 0.2);
+        index.rebuild();
+
+        // The corner is inside the bounding box but about 31 km away
+        assertEquals(List.of("Inside"), names(index.nearby(0.0, 0.0, 25, 10)));
+    }
+
+    @Test
+    void nearestFirstUpToTheLimit() {
+        lawyer("Three", 0.0, 0.03);
+        lawyer("One", 0.0, 0.01);
+        lawyer("Two", 0.0, 0.02);
+        lawyer("Unlocated", null, null);
+        index.rebuild();
+
+        assertEquals(List.of("One", "Two"), names(index.nearby(0.0, 0.0, 25, 2)));
+        assertEquals(List.of(), index.nearby(0.0, 0.0, 25, 0));
+    }
+
+    @Test
+    void hugeLimitIsBoundedByTheLawyers() {
+        lawyer("Only", 0.0, 0.01);
+        index.rebuild();
+
+        assertEquals(List.of("Only"), names(index.nearby(0.0, 0.0, 25, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void changedLawyerMovesToItsNewCell() {
+        LawyerSearchDto lawyer = lawyer("Mover", 51.5, -0.12);
+        index.rebuild();
+        LawyerSearchDto moved = new LawyerSearchDto(lawyer.getId(), "Mover", null, null, null, false,
+                null, null, null, null, 48.85, 2.35, null, 0L);
+        when(lawyerRepository.findSearchDtoById(lawyer.getId())).thenReturn(Optional.of(moved));
+
+        index.onLawyerChanged(new LawyerChangedEvent(lawyer.getId()));
+
+        assertTrue(index.nearby(51.5, -0.12, 25, 10).isEmpty());
+        assertEquals(List.of("Mover"), names(index.nearby(48.85, 2.35, 25, 10)));
+    }
+
+    @Test
+    void radiusIsDefaultedAndCapped() {
+        assertEquals(25, index.radiusOrDefault(null));
+        assertEquals(25, index.radiusOrDefault(-1.0));
+        assertEquals(500, index.radiusOrDefault(20000.0));
+    }
+
+    private LawyerSearchDto lawyer(String name, Double latitude, Double longitude) {
+        LawyerSearchDto lawyer = new LawyerSearchDto(UUID.randomUUID(), name, null, null, null, false,
+                null, null, null, null, latitude, longitude, null, 0L);
+        lawyers.add(lawyer);
+        return lawyer;
+    }
+
+    private static List<String> names(List<LawyerDistanceDto> hits) {
+        return hits.stream().map(hit -> hit.getLawyer().getName()).toList();
+    }
+}
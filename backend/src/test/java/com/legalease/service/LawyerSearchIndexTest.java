@@ -0,0 +1,126 @@
+package com.legalease.service;
+
+import com.legalease.dto.LawyerSearchDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ranking of the in-memory lawyer search: BM25 per field, the verified boost, fuzzy
+ * trigram matches and the bounded top-k cut.
+ */
+class LawyerSearchIndexTest {
+
+    private LawyerSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new LawyerSearchIndex(0.5, 1.25);
+    }
+
+    @Test
+    void shorterFieldWithTheSameTermRanksFirst() {
+        put("Smith Johnson Williams Brown", "Tax Law", false);
+        put("Anna Smith", "Tax Law", false);
+
+        assertEquals(List.of("Anna Smith", "Smith Johnson Williams Brown"), names(index.search("smith", 10)));
+    }
+
+    @Test
+    void rareTermsOutweighCommonOnes() {
+        put("Maria Garcia", "Family Law", false);
+        put("Rohan Iyer", "Family Law", false);
+        put("Priya Nair", "Family Law", false);
+        put("Elena Rossi", "Immigration Law", false);
+
+        // "law" is in every document and adds almost nothing; "immigration" decides
+        assertEquals("Elena Rossi", names(index.search("immigration law", 10)).get(0));
+    }
+
+    @Test
+    void verifiedBoostBreaksOtherwiseEqualScores() {
+        put("Rahul Das", "Criminal Defense", false);
+        put("Rahul Dey", "Criminal Defense", true);
+
+        assertEquals("Rahul Dey", names(index.search("criminal", 10)).get(0));
+    }
+
+    @Test
+    void misspelledQueryStillMatchesBySharedTrigrams() {
+        put("John Smith", "Tax Law", false);
+        put("Zoe Novak", "Tax Law", false);
+
+        assertEquals(List.of("John Smith"), names(index.search("smoth", 10)));
+    }
+
+    @Test
+    void shortQueryMatchesSubstringsOnly() {
+        put("Ana Patel", "Tax Law", false);
+        put("Arjun Mehra", "Family Law", false);
+
+        assertEquals(List.of("Ana Patel"), names(index.search("ta", 10)));
+    }
+
+    @Test
+    void topKKeepsTheBestHitsInRankOrder() {
+        for (int i = 0; i < 30; i++) {
+            put("Lawyer " + "x".repeat(i) + " Sharma", "Tax Law", i % 7 == 0);
+        }
+        List<String> ranked = names(index.search("sharma", 30));
+
+        assertEquals(30, ranked.size());
+        assertEquals(ranked.subList(0, 5), names(index.search("sharma", 5)));
+        assertEquals(List.of(), index.search("sharma", 0));
+    }
+
+    @Test
+    void hugeLimitIsBoundedByTheMatches() {
+        put("Anna Smith", "Tax Law", false);
+        put("Zoe Novak", "Tax Law", false);
+
+        // Heaps are sized by what they can hold, not by the limit asked for
+        assertEquals(List.of("Anna Smith"), names(index.search("smith", Integer.MAX_VALUE)));
+        assertEquals(List.of("Anna Smith", "Zoe Novak"), names(index.first(Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void blankQueryListsByNameUpToTheLimit() {
+        put("Zoe Novak", "Tax Law", false);
+        put("Ana Patel", "Tax Law", false);
+        put("Maria Garcia", "Tax Law", false);
+
+        assertEquals(List.of("Ana Patel", "Maria Garcia"), names(index.search(" ", 2)));
+        assertEquals(List.of("Ana Patel", "Maria Garcia", "Zoe Novak"), names(index.all()));
+    }
+
+    @Test
+    void replacedAndRemovedLawyersLeaveNoPostings() {
+        UUID id = put("John Smith", "Tax Law", false);
+        put(id, "John Brown", "Tax Law", false);
+        assertTrue(index.search("smith", 10).isEmpty());
+        assertEquals(List.of("John Brown"), names(index.search("brown", 10)));
+
+        index.remove(id);
+        assertTrue(index.search("brown", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    private UUID put(String name, String specialization, boolean verified) {
+        return put(UUID.randomUUID(), name, specialization, verified);
+    }
+
+    private UUID put(UUID id, String name, String specialization, boolean verified) {
+        index.put(new LawyerSearchDto(id, name, null, specialization, null, verified,
+                null, null, null, null, null, null, null, 0L));
+        return id;
+    }
+
+    private static List<String> names(List<LawyerSearchDto> lawyers) {
+        return lawyers.stream().map(LawyerSearchDto::getName).toList();
+    }
+}
@@ -0,0 +1,114 @@
+package com.legalease.service;
+
+import com.legalease.dto.LawyerSearchDto;
+import com.legalease.entity.Lawyer;
+import com.legalease.entity.User;
+import com.legalease.entity.UserRole;
+import com.legalease.repository.LawyerRepository;
+import com.legalease.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Pins lawyer search to a single statement no matter how many lawyers are returned,
+ * so per-row user lookups cannot creep back in. Until the directory index is ready
+ * LawyerService answers from the database; the index is built with one select and
+ * then answers without any.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({LawyerService.class, LawyerDirectoryIndex.class, LawyerSuggestIndex.class, LawyerProfileCache.class, LawyerGeoIndex.class})
+class LawyerSearchQueryCountTest {
+
+    private static final int LAWYERS = 50;
+
+    @Autowired
+    private LawyerService lawyerService;
+
+    @SpyBean
+    private LawyerDirectoryIndex directoryIndex;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LawyerRepository lawyerRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < LAWYERS; i++) {
+            User user = new User();
+            user.setName("Lawyer " + i);
+            user.setEmail("lawyer" + i + "@example.com");
+            user.setPassword("secret");
+            user.setRole(UserRole.LAWYER);
+            user = userRepository.save(user);
+
+            Lawyer lawyer = new Lawyer();
+            lawyer.setUser(user);
+            lawyer.setSpecialization(i % 2 == 0 ? "Family Law" : "Tax Law");
+            lawyer.setExperience(i + " years");
+            lawyer.setVerified(false);
+            lawyer.setHourlyRate(BigDecimal.valueOf(100));
+            lawyerRepository.save(lawyer);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void unfilteredSearchIsOneStatement() {
+        doReturn(false).when(directoryIndex).isReady();
+        List<LawyerSearchDto> results = lawyerService.searchLawyersForClients(null);
+
+        assertEquals(LAWYERS, results.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void filteredSearchIsOneStatement() {
+        doReturn(false).when(directoryIndex).isReady();
+        List<LawyerSearchDto> results = lawyerService.searchLawyersForClients("family");
+
+        assertEquals(LAWYERS / 2, results.size());
+        assertEquals("Family Law", results.get(0).getSpecialization());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void directoryBuildIsOneStatementAndSearchIsNone() {
+        directoryIndex.rebuild();
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        assertEquals(LAWYERS, lawyerService.searchLawyersForClients(null).size());
+        assertEquals(LAWYERS / 2, lawyerService.searchLawyersForClients("family").size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,178 @@
+package com.legalease.service;
+
+import com.legalease.dto.LawyerSearchDto;
+import com.legalease.dto.LawyerSuggestionDto;
+import com.legalease.event.LawyerChangedEvent;
+import com.legalease.repository.LawyerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Typeahead weighting and ordering, and incremental updates checked against a
+ * brute-force ranking of the same lawyers.
+ */
+class LawyerSuggestIndexTest {
+
+    private static final String[] FIRST_NAMES = {"Aarav", "Priya", "Anna", "John", "Maria", "Arjun", "Sofia"};
+    private static final String[] LAST_NAMES = {"Sharma", "Smith", "Smythe", "Patel", "Garcia", "Iyer"};
+    private static final String[] SPECIALIZATIONS = {"Family Law", "Tax Law", "Immigration", "Criminal Defense", "Patent Law"};
+
+    private final LawyerRepository lawyerRepository = mock(LawyerRepository.class);
+    private final Map<UUID, LawyerSearchDto> stored = new LinkedHashMap<>();
+    private LawyerSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(lawyerRepository.findAllSearchDtos()).thenAnswer(invocation -> new ArrayList<>(stored.values()));
+        when(lawyerRepository.findSearchDtoById(any())).thenAnswer(
+                invocation -> Optional.ofNullable(stored.get(invocation.<UUID>getArgument(0))));
+        index = new LawyerSuggestIndex(lawyerRepository, 8, 20);
+    }
+
+    @Test
+    void anyWordOfASuggestionMatches() {
+        save(UUID.randomUUID(), "John A. Smith", "Tax Law", 0);
+        index.rebuild();
+
+        assertEquals(List.of("John A. Smith"), texts(index.suggest("smi", null)));
+        assertEquals(List.of("John A. Smith"), texts(index.suggest("a smith", null)));
+        assertEquals(List.of("Tax Law"), texts(index.suggest("law", null)));
+        assertTrue(index.suggest(" ", null).isEmpty());
+    }
+
+    @Test
+    void namesWeighTheirReviewsAndSpecializationsTheirLawyers() {
+        save(UUID.randomUUID(), "Paula Adams", "Patent Law", 0);
+        save(UUID.randomUUID(), "Pablo Reyes", "Patent Law", 0);
+        save(UUID.randomUUID(), "Pat Quinn", "Tax Law", 5);
+        index.rebuild();
+
+        // Pat Quinn has five reviews, Patent Law two lawyers, the other names none
+        assertEquals(List.of("Pat Quinn", "Patent Law", "Pablo Reyes", "Paula Adams"), texts(index.suggest("pa", null)));
+    }
+
+    @Test
+    void limitIsCappedAndDefaulted() {
+        for (int i = 0; i < 30; i++) {
+            save(UUID.randomUUID(), "Lawyer " + i, "Tax Law", 0);
+        }
+        index.rebuild();
+
+        assertEquals(8, index.suggest("lawyer", null).size());
+        assertEquals(3, index.suggest("lawyer", 3).size());
+        assertEquals(20, index.suggest("lawyer", 500).size());
+    }
+
+    @Test
+    void changesAreAppliedWithoutARebuild() {
+        UUID id = UUID.randomUUID();
+        save(id, "Maria Garcia", "Family Law", 0);
+        save(UUID.randomUUID(), "Mario Rossi", "Family Law", 0);
+        index.rebuild();
+
+        save(id, "Maria Garcia", "Immigration", 3);
+        index.onLawyerChanged(new LawyerChangedEvent(id));
+        assertEquals(List.of("Maria Garcia", "Mario Rossi"), texts(index.suggest("mar", null)));
+        assertEquals(List.of("Family Law"), texts(index.suggest("fam", null)));
+        assertEquals(List.of("Immigration"), texts(index.suggest("imm", null)));
+
+        stored.remove(id);
+        index.onLawyerChanged(new LawyerChangedEvent(id));
+        assertEquals(List.of("Mario Rossi"), texts(index.suggest("mar", null)));
+        assertTrue(index.suggest("imm", null).isEmpty());
+    }
+
+    @Test
+    void incrementalUpdatesMatchABruteForceRanking() {
+        Random random = new Random(7);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            ids.add(UUID.randomUUID());
+            save(ids.get(i), random);
+        }
+        index.rebuild();
+
+        for (int step = 0; step < 600; step++) {
+            UUID id = ids.get(random.nextInt(ids.size()));
+            if (random.nextInt(5) == 0) {
+                stored.remove(id);
+            } else {
+                save(id, random);
+            }
+            index.onLawyerChanged(new LawyerChangedEvent(id));
+
+            if (step % 20 == 0) {
+                for (String prefix : List.of("a", "s", "sm", "smith", "law", "p", "tax law", "maria g")) {
+                    assertEquals(expected(prefix, 8), texts(index.suggest(prefix, null)), "prefix " + prefix + " at step " + step);
+                }
+            }
+        }
+        assertEquals(false, index.rebuild());
+    }
+
+    private void save(UUID id, Random random) {
+        save(id, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                SPECIALIZATIONS[random.nextInt(SPECIALIZATIONS.length)], random.nextInt(4));
+    }
+
+    private void save(UUID id, String name, String specialization, long reviews) {
+        stored.put(id, new LawyerSearchDto(id, name, null, specialization, null, false,
+                null, null, null, null, null, null, null, reviews));
+    }
+
+    // Every matching suggestion with its weight and earliest matching term, ranked as the index promises
+    private List<String> expected(String prefix, int limit) {
+        Map<String, Object[]> candidates = new HashMap<>();
+        Map<String, Integer> lawyersBySpecialization = new HashMap<>();
+        Map<String, String> specializationText = new HashMap<>();
+        for (LawyerSearchDto lawyer : stored.values()) {
+            String name = LawyerSearchIndex.normalize(lawyer.getName());
+            consider(candidates, prefix, name, "NAME" + lawyer.getId(), lawyer.getName(), (int) (1 + lawyer.getReviewCount()));
+            String specialization = LawyerSearchIndex.normalize(lawyer.getSpecialization());
+            lawyersBySpecialization.merge(specialization, 1, Integer::sum);
+            specializationText.putIfAbsent(specialization, lawyer.getSpecialization());
+        }
+        lawyersBySpecialization.forEach((specialization, lawyers) -> consider(candidates, prefix, specialization,
+                "SPECIALIZATION" + specialization, specializationText.get(specialization), lawyers));
+        return candidates.values().stream()
+                .sorted(Comparator.comparing((Object[] c) -> -(int) c[1]).thenComparing(c -> (String) c[2]))
+                .limit(limit)
+                .map(c -> (String) c[0])
+                .toList();
+    }
+
+    private static void consider(Map<String, Object[]> candidates, String prefix, String normalized, String key,
+                                 String text, int weight) {
+        String[] words = normalized.split(" ");
+        for (int i = words.length - 1; i >= 0; i--) {
+            String term = String.join(" ", List.of(words).subList(i, words.length));
+            if (term.startsWith(prefix)) {
+                String sortKey = term + '\u0000' + key;
+                Object[] existing = candidates.get(key);
+                if (existing == null || sortKey.compareTo((String) existing[2]) < 0) {
+                    candidates.put(key, new Object[]{text, weight, sortKey});
+                }
+            }
+        }
+    }
+
+    private static List<String> texts(List<LawyerSuggestionDto> suggestions) {
+        return suggestions.stream().map(LawyerSuggestionDto::getText).toList();
+    }
+}
@@ -0,0 +1,75 @@
+package com.legalease.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round trips of the opaque message cursor and its ordering, which must match what
+ * Postgres applies to (created_at, id).
+ */
+class MessageCursorTest {
+
+    @Test
+    void encodeDecodeRoundTripKeepsMicroseconds() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 2, 29, 23, 59, 59, 123_456_000);
+        UUID id = UUID.randomUUID();
+
+        MessageCursor decoded = MessageCursor.decode(MessageCursor.of(createdAt, id).encode());
+
+        assertEquals(createdAt, decoded.getCreatedAt());
+        assertEquals(id, decoded.getId());
+    }
+
+    @Test
+    void wholeSecondsRoundTrip() {
+        // LocalDateTime.toString drops zero seconds, which parse must still accept
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+        assertEquals(createdAt, MessageCursor.decode(MessageCursor.of(createdAt, UUID.randomUUID()).encode()).getCreatedAt());
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        String encoded = MessageCursor.of(LocalDateTime.now(), UUID.randomUUID()).encode();
+
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        assertThrows(RuntimeException.class, () -> MessageCursor.decode("not a cursor"));
+        assertThrows(RuntimeException.class, () -> MessageCursor.decode(""));
+        String missingId = Base64.getUrlEncoder().encodeToString("2024-01-01T00:00|".getBytes(StandardCharsets.UTF_8));
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> MessageCursor.decode(missingId));
+        assertEquals("Invalid cursor", ex.getMessage());
+    }
+
+    @Test
+    void idsBreakTimeTiesAsUnsignedBytes() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        // Signed comparison would put 0x8000... before 0x0000...; Postgres puts it after
+        MessageCursor high = MessageCursor.of(createdAt, new UUID(0x8000000000000000L, 0));
+        MessageCursor low = MessageCursor.of(createdAt, new UUID(0, 0xFFFFFFFFFFFFFFFFL));
+
+        assertTrue(high.isAfter(low));
+        assertFalse(low.isAfter(high));
+        assertFalse(low.isAfter(low));
+        assertTrue(MessageCursor.of(createdAt.plusNanos(1000), low.getId()).isAfter(high));
+    }
+
+    @Test
+    void endIsAfterEveryRealPosition() {
+        MessageCursor latest = MessageCursor.of(LocalDateTime.of(9000, 1, 1, 0, 0), new UUID(-1L, -2L));
+
+        assertTrue(MessageCursor.end().isAfter(latest));
+    }
+}
@@ -0,0 +1,106 @@
+package com.legalease.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Put, ranged reads and delete against a real S3-compatible server, and the tiered
+ * storage in front of it. Skipped unless S3_TEST_ENDPOINT points at one (MinIO is
+ * enough), with S3_TEST_BUCKET, S3_TEST_ACCESS_KEY and S3_TEST_SECRET_KEY set.
+ */
+@EnabledIfEnvironmentVariable(named = "S3_TEST_ENDPOINT", matches = ".+")
+class S3DocumentStorageTest {
+
+    @TempDir
+    Path directory;
+
+    private S3DocumentStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        S3Client s3 = S3Client.builder()
+                .region(Region.US_EAST_1)
+                .endpointOverride(URI.create(System.getenv("S3_TEST_ENDPOINT")))
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(
+                        System.getenv("S3_TEST_ACCESS_KEY"), System.getenv("S3_TEST_SECRET_KEY"))))
+                .build();
+        // A fresh prefix per run, so runs never see each other's objects
+        storage = new S3DocumentStorage(s3, System.getenv("S3_TEST_BUCKET"), "test-" + UUID.randomUUID());
+    }
+
+    @AfterEach
+    void tearDown() {
+        storage.close();
+    }
+
+    @Test
+    void putReadRangeAndDelete() throws IOException {
+        Path source = source("0123456789");
+        storage.put("ab/doc", source);
+        assertFalse(Files.exists(source));
+
+        assertTrue(storage.exists("ab/doc"));
+        DocumentContent content = storage.read("ab/doc");
+        assertEquals(10, content.getLength());
+        assertNull(content.getLocalFile());
+        assertEquals("2345", text(content, 2, 4));
+        assertEquals("", text(content, 0, 0));
+
+        storage.delete("ab/doc");
+        assertFalse(storage.exists("ab/doc"));
+        assertThrows(NoSuchFileException.class, () -> storage.read("ab/doc"));
+    }
+
+    @Test
+    void tieredMissIsFetchedFromTheBucket() throws IOException {
+        LocalDocumentStorage hot = new LocalDocumentStorage(directory.resolve("hot"));
+        TieredDocumentStorage tiered = new TieredDocumentStorage(hot, storage, 1024);
+        tiered.put("doc", source("0123456789"));
+        hot.delete("doc");
+
+        try (DocumentContent content = tiered.read("doc")) {
+            assertEquals("0123456789", text(content, 0, content.getLength()));
+        }
+        assertTrue(hot.exists("doc"));
+        assertEquals(1, tiered.getMissCount());
+
+        tiered.delete("doc");
+        assertFalse(storage.exists("doc"));
+    }
+
+    private Path source(String body) throws IOException {
+        Path source = Files.createTempFile(directory, "upload", ".tmp");
+        Files.writeString(source, body);
+        return source;
+    }
+
+    private static String text(DocumentContent content, long start, long count) throws IOException {
+        try (InputStream in = content.open(start, count)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.legalease.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The hot tier in front of a cold one, both on local disk: least recently read
+ * eviction, byte accounting, refetch on a miss and reads racing an eviction.
+ */
+class TieredDocumentStorageTest {
+
+    @TempDir
+    Path directory;
+
+    private LocalDocumentStorage hot;
+    private LocalDocumentStorage cold;
+    private TieredDocumentStorage storage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        hot = new LocalDocumentStorage(directory.resolve("hot"));
+        cold = new LocalDocumentStorage(directory.resolve("cold"));
+        storage = new TieredDocumentStorage(hot, cold, 25);
+    }
+
+    @Test
+    void putWritesBothTiers() throws IOException {
+        put("a", "0123456789");
+
+        assertTrue(hot.exists("a"));
+        assertTrue(cold.exists("a"));
+        assertEquals(10, storage.getHotBytes());
+    }
+
+    @Test
+    void leastRecentlyReadObjectIsEvictedFirst() throws IOException {
+        put("a", "0123456789");
+        put("b", "0123456789");
+        assertEquals("0123456789", read("a"));
+
+        put("c", "0123456789");
+
+        assertFalse(hot.exists("b"));
+        assertTrue(hot.exists("a"));
+        assertTrue(hot.exists("c"));
+        assertTrue(cold.exists("b"));
+        assertEquals(20, storage.getHotBytes());
+    }
+
+    @Test
+    void missIsFetchedFromTheColdTierAndKept() throws IOException {
+        put("a", "0123456789");
+        put("b", "0123456789");
+        put("c", "0123456789");
+        assertFalse(hot.exists("a"));
+
+        assertEquals("0123456789", read("a"));
+        assertTrue(hot.exists("a"));
+        assertEquals("0123456789", read("a"));
+
+        assertEquals(1, storage.getMissCount());
+        assertEquals(1, storage.getHitCount());
+        assertEquals(20, storage.getHotBytes());
+    }
+
+    @Test
+    void deleteDropsTheObjectFromBothTiers() throws IOException {
+        put("a", "0123456789");
+
+        storage.delete("a");
+
+        assertFalse(storage.exists("a"));
+        assertFalse(hot.exists("a"));
+        assertFalse(cold.exists("a"));
+        assertEquals(0, storage.getHotBytes());
+    }
+
+    @Test
+    void contentOpenedBeforeAnEvictionStaysReadable() throws IOException {
+        put("a", "0123456789");
+        try (DocumentContent content = storage.read("a")) {
+            // Served from the open channel, never by file name
+            assertNull(content.getLocalFile());
+            put("b", "0123456789");
+            put("c", "0123456789");
+            assertFalse(hot.exists("a"));
+
+            assertEquals("345", text(content, 3, 3));
+            assertEquals("0123456789", text(content, 0, content.getLength()));
+        }
+    }
+
+    @Test
+    void hotFileRemovedBehindTheCacheIsFetchedAgain() throws IOException {
+        put("a", "0123456789");
+        hot.delete("a");
+
+        assertEquals("0123456789", read("a"));
+        assertEquals(1, storage.getMissCount());
+        assertEquals(10, storage.getHotBytes());
+    }
+
+    @Test
+    void restartPicksUpTheHotTierWithinTheLimit() throws IOException {
+        put("a", "0123456789");
+        put("b", "0123456789");
+
+        TieredDocumentStorage restarted = new TieredDocumentStorage(hot, cold, 15);
+
+        assertEquals(10, restarted.getHotBytes());
+        assertEquals(1, Files.list(hot.getRoot()).filter(Files::isRegularFile).count());
+    }
+
+    private void put(String key, String body) throws IOException {
+        Path source = Files.createTempFile(directory, "upload", ".tmp");
+        Files.writeString(source, body);
+        storage.put(key, source);
+    }
+
+    private String read(String key) throws IOException {
+        try (DocumentContent content = storage.read(key)) {
+            return text(content, 0, content.getLength());
+        }
+    }
+
+    private static String text(DocumentContent content, long start, long count) throws IOException {
+        try (InputStream in = content.open(start, count)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}